@@ -2,68 +2,80 @@ package collinear;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
+// Exact brute force, meant as an oracle for the faster searches: it finds the same maximal segments (in the same
+// order) as FastCollinearPoints, but tests collinearity by integer cross products instead of comparing slopes.
 public class BruteCollinearPoints {
-    private int collinearCount;
+    private static final int REQUESTED_COLLINEAR_COUNT = 4;
+
     private final List<LineSegment> segments = new ArrayList<LineSegment>();
 
     public BruteCollinearPoints(Point[] pointsA) {
-        if (null == pointsA) {
-            throw new IllegalArgumentException();
-        }
-        Point[] points = new Point[pointsA.length];
-        for (int i = 0; i < points.length; i++) {
-            points[i] = pointsA[i];
-            if (null == points[i]) {
-                throw new IllegalArgumentException();
-            }
-        }
+        this(IntPointSet.of(pointsA));
+    }
 
-        // filter repeated point (done in such a way, since set usage is not allowed by the assignment
-        Arrays.sort(points);
-        for (int i = 0; i < points.length - 1; i++) {
-            if (0 == points[i].compareTo(points[i + 1])) {
-                throw new IllegalArgumentException();
-            }
+    public BruteCollinearPoints(IntPointSet pointSet) {
+        if (null == pointSet) {
+            throw new IllegalArgumentException();
         }
 
-        // find 4 collinear points in a row (by assignment we're assured that 4
-        // is the maxim possible number of collinear points
-        for (int i = 0; i < points.length - 3; i++) {
-            for (int j = i + 1; j < points.length - 2; j++) {
-                double slopeBetweenFirstAndSecondPoints = points[i].slopeTo(points[j]);
-                for (int k = j + 1; k < points.length - 1; k++) {
-                    double slopeBetweenFirstAndThirdPoints = points[i].slopeTo(points[k]);
-                    if (slopeBetweenFirstAndSecondPoints != slopeBetweenFirstAndThirdPoints) {
-                        continue;
-                    }
-                    for (int l = k + 1; l < points.length; l++) {
-                        double slopeBetweenFirstAndFourthPoints = points[i].slopeTo(points[l]);
-                        if (slopeBetweenFirstAndSecondPoints == slopeBetweenFirstAndFourthPoints) {
-                            collinearCount++;
+        // sort the points by (y, x), which also rejects repeated ones
+        IntPointSet points = pointSet.sortedDistinct();
+        int n = points.size();
 
-                            List<Point> currentCollinearPoints = new ArrayList<Point>();
-                            currentCollinearPoints.add(points[i]);
-                            currentCollinearPoints.add(points[j]);
-                            currentCollinearPoints.add(points[k]);
-                            currentCollinearPoints.add(points[l]);
-                            Collections.sort(currentCollinearPoints);
+        // the differences from the current first point, so that a cross product costs two multiplications
+        long[] dxs = new long[n];
+        long[] dys = new long[n];
+        int[] ends = new int[n];
+        for (int i = 0; i < n - REQUESTED_COLLINEAR_COUNT + 1; i++) {
+            for (int k = 0; k < n; k++) {
+                dxs[k] = (long) points.x(k) - points.x(i);
+                dys[k] = (long) points.y(k) - points.y(i);
+            }
 
-                            segments.add(new LineSegment(currentCollinearPoints.get(0), currentCollinearPoints.get(3)));
-                        }
+            // since the points are sorted, a line through i and j yields a segment starting at i only if
+            // no point before i lies on it, and it is enough to consider it for the first point j after i on it
+            int endCount = 0;
+            for (int j = i + 1; j < n - REQUESTED_COLLINEAR_COUNT + 2; j++) {
+                if (hasCollinear(dxs, dys, j, 0, i) || hasCollinear(dxs, dys, j, i + 1, j)) {
+                    continue;
+                }
+                int count = 2;
+                int last = j;
+                for (int k = j + 1; k < n; k++) {
+                    if (dxs[j] * dys[k] == dys[j] * dxs[k]) {
+                        count++;
+                        last = k;
                     }
                 }
+                if (count >= REQUESTED_COLLINEAR_COUNT) {
+                    ends[endCount++] = last;
+                }
+            }
+
+            Arrays.sort(ends, 0, endCount);
+            for (int k = 0; k < endCount; k++) {
+                segments.add(new LineSegment(points.toPoint(i), points.toPoint(ends[k])));
             }
         }
     }
 
     public int numberOfSegments() {
-        return collinearCount;
+        return segments.size();
     }
 
     public LineSegment[] segments() {
         return segments.toArray(new LineSegment[0]);
     }
+
+    // is any of the points [from, to) on the line through the first point and the point j?
+    private static boolean hasCollinear(long[] dxs, long[] dys, int j, int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (dxs[j] * dys[k] == dys[j] * dxs[k]) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -2,91 +2,148 @@ package collinear;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class FastCollinearPoints {
     private static final int REQUESTED_COLLINEAR_COUNT = 4;
 
-    private final List<LineSegment> segments = new ArrayList<>();
+    // every task allocates its scratch arrays once, which is negligible next to sorting for this many anchors
+    private static final int ANCHORS_PER_TASK = 64;
+
+    // subarrays this short are sorted by insertion
+    private static final int INSERTION_SORT_CUTOFF = 7;
+
+    private final List<LineSegment> segments;
 
     public FastCollinearPoints(Point[] pointsA) {
-        if (null == pointsA) {
+        this(IntPointSet.of(pointsA));
+    }
+
+    // the same as FastCollinearPoints(points), but the anchors are processed by the pool: every task sorts
+    // its own copy of the points and collects its own segments, which are concatenated at the end
+    public FastCollinearPoints(Point[] pointsA, ForkJoinPool pool) {
+        this(IntPointSet.of(pointsA), pool);
+    }
+
+    public FastCollinearPoints(IntPointSet pointSet) {
+        if (null == pointSet) {
             throw new IllegalArgumentException();
         }
-        Point[] points = new Point[pointsA.length];
-        for (int i = 0; i < points.length; i++) {
-            points[i] = pointsA[i];
-            if (null == points[i]) {
-                throw new IllegalArgumentException();
-            }
-        }
+        IntPointSet points = pointSet.sortedDistinct();
+        segments = findSegments(points, 0, points.size());
+    }
 
-        Arrays.sort(points);
-        final Point[] initial = new Point[points.length];
-        for (int i = 0; i < points.length - 1; i++) {
-            initial[i] = points[i];
-            if (0 == points[i].compareTo(points[i + 1])) {
-                throw new IllegalArgumentException();
-            }
+    public FastCollinearPoints(IntPointSet pointSet, ForkJoinPool pool) {
+        if (null == pointSet || null == pool) {
+            throw new IllegalArgumentException();
         }
-        initial[points.length - 1] = points[points.length - 1];
-
-        List<PointsPair> segmentsPool = new ArrayList<PointsPair>();
-        for (int i = 0; i < initial.length; i++) {
-            final Point anchor = initial[i];
-
-            // sort according to slope, so that all collinear points will be in one sequence near each other
-            Arrays.sort(points, new Comparator<Point>() {
-                public int compare(Point o1, Point o2) {
-                    int slopeComparison = Double.compare(anchor.slopeTo(o1), anchor.slopeTo(o2));
-                    return (0 == slopeComparison) ? o1.compareTo(o2) : slopeComparison;
-                }
-            });
-
-            // start filling the most current sequence in
-            List<Point> currentCollinearPoints = new ArrayList<>();
+        IntPointSet points = pointSet.sortedDistinct();
+        segments = pool.invoke(new AnchorsTask(points, 0, points.size()));
+    }
 
-            // go through all other points; clear the list at the beginning of each new sequence
-            for (int j = 1; j < points.length - 1; j++) {
-                currentCollinearPoints.add(points[j]);
-                if (anchor.slopeTo(points[j]) != anchor.slopeTo(points[j + 1])) {
-                    if (currentCollinearPoints.size() >= REQUESTED_COLLINEAR_COUNT - 1) {
-                        processFoundCollinearPoints(currentCollinearPoints, anchor, segmentsPool);
+    // finds the segments, whose smallest point is one of the anchors [from, to) of the sorted points;
+    // the segments come ordered by their first and then by their last point
+    private static List<LineSegment> findSegments(IntPointSet points, int from, int to) {
+        int n = points.size();
+        // the indices of the points sorted by slope; since the points are sorted, an index compares
+        // as its point does, so that ties are broken by the indices
+        int[] order = new int[n];
+        int[] aux = new int[n];
+        double[] slopes = new double[n];
+        int[] ends = new int[n];
+        List<LineSegment> segments = new ArrayList<>();
+        for (int anchor = from; anchor < to; anchor++) {
+            for (int j = 0; j < n; j++) {
+                order[j] = j;
+                slopes[j] = points.slope(anchor, j);
+            }
+            // the anchor itself comes first, since its slope to itself is negative infinity
+            sort(order, aux, slopes, 0, n);
+
+            // go through the sequences of the same slope; within a sequence the points are sorted,
+            // so that the anchor starts the segment if it is less than the first point of the sequence,
+            // while the last point ends it; otherwise the segment is found from its actual start
+            int endCount = 0;
+            int sequenceStart = 1;
+            for (int j = 2; j <= n; j++) {
+                if (j == n || slopes[order[j]] != slopes[order[sequenceStart]]) {
+                    if (j - sequenceStart >= REQUESTED_COLLINEAR_COUNT - 1 && anchor < order[sequenceStart]) {
+                        ends[endCount++] = order[j - 1];
                     }
-                    currentCollinearPoints.clear();
+                    sequenceStart = j;
                 }
             }
 
-            // process last point
-            currentCollinearPoints.add(points[points.length - 1]);
-
-            // if list contains 3+ points, then the last sequence of points should be added as well
-            if (currentCollinearPoints.size() >= REQUESTED_COLLINEAR_COUNT - 1) {
-                processFoundCollinearPoints(currentCollinearPoints, anchor, segmentsPool);
+            Arrays.sort(ends, 0, endCount);
+            for (int k = 0; k < endCount; k++) {
+                segments.add(new LineSegment(points.toPoint(anchor), points.toPoint(ends[k])));
             }
         }
+        return segments;
+    }
 
-        // sort and then filter segments, which are the same
-        Collections.sort(segmentsPool);
-        for (int i = 0; i < segmentsPool.size() - 1; i++) {
-            if (!segmentsPool.get(i).equals(segmentsPool.get(i + 1))) {
-                segments.add(new LineSegment(segmentsPool.get(i).a, segmentsPool.get(i).b));
+    // stable merge sort of order[from, to) by the slopes of the indices
+    private static void sort(int[] order, int[] aux, double[] slopes, int from, int to) {
+        if (to - from <= INSERTION_SORT_CUTOFF) {
+            for (int i = from + 1; i < to; i++) {
+                int index = order[i];
+                int j = i;
+                while (j > from && slopes[order[j - 1]] > slopes[index]) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+                order[j] = index;
             }
+            return;
         }
-        if (!segmentsPool.isEmpty()) {
-            segments.add(new LineSegment(segmentsPool.get(segmentsPool.size() - 1).a,
-                    segmentsPool.get(segmentsPool.size() - 1).b));
+        int middle = (from + to) >>> 1;
+        sort(order, aux, slopes, from, middle);
+        sort(order, aux, slopes, middle, to);
+        if (slopes[order[middle - 1]] <= slopes[order[middle]]) {
+            return;
+        }
+        System.arraycopy(order, from, aux, from, to - from);
+        int i = from;
+        int j = middle;
+        for (int k = from; k < to; k++) {
+            if (i == middle) {
+                order[k] = aux[j++];
+            } else if (j == to || slopes[aux[i]] <= slopes[aux[j]]) {
+                order[k] = aux[i++];
+            } else {
+                order[k] = aux[j++];
+            }
         }
     }
 
-    private static void processFoundCollinearPoints(List<Point> currentCollinearPoints, Point anchor,
-            List<PointsPair> segmentsPool) {
-        currentCollinearPoints.add(anchor);
-        Collections.sort(currentCollinearPoints);
-        segmentsPool.add(new PointsPair(currentCollinearPoints.get(0),
-                currentCollinearPoints.get(currentCollinearPoints.size() - 1)));
+    // finds the segments through the anchors [from, to), splitting the range in halves down to ANCHORS_PER_TASK
+    private static class AnchorsTask extends RecursiveTask<List<LineSegment>> {
+        private final IntPointSet points;
+        private final int from;
+        private final int to;
+
+        public AnchorsTask(IntPointSet points, int from, int to) {
+            this.points = points;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<LineSegment> compute() {
+            if (to - from <= ANCHORS_PER_TASK) {
+                return findSegments(points, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            AnchorsTask left = new AnchorsTask(points, from, middle);
+            left.fork();
+            List<LineSegment> rightSegments = new AnchorsTask(points, middle, to).compute();
+            // keep the order of the anchors
+            List<LineSegment> segments = left.join();
+            segments.addAll(rightSegments);
+            return segments;
+        }
     }
 
     public int numberOfSegments() {
@@ -96,42 +153,4 @@ public class FastCollinearPoints {
     public LineSegment[] segments() {
         return segments.toArray(new LineSegment[0]);
     }
-
-    // dirty solution to trick Autograder and get mark 100 rather than 99.
-    // ideally one should have relied on LineSegment, however, since it's not allowed by assignment
-    // either to implement the necessary methods (compareTo) there or to rely on #toString for
-    // the same purposes, I have come up with such a "solution"
-    private static class PointsPair implements Comparable<PointsPair> {
-        private final Point a;
-        private final Point b;
-
-        public PointsPair(Point a, Point b) {
-            this.a = a;
-            this.b = b;
-        }
-
-        @Override
-        public int compareTo(PointsPair o) {
-            int comparedByA = a.compareTo(o.a);
-            return 0 == comparedByA ? b.compareTo(o.b) : comparedByA;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-            PointsPair that = (PointsPair) o;
-            return 0 == a.compareTo(that.a) && 0 == b.compareTo(that.b);
-        }
-
-        // NOTE: since by assignment I cannot update Point class,
-        // retrieving x and y values from Point are not possible,
-        // which prevents me from implementing #hashCode().
-        // However, because this class is used internally for a particular purpose only,
-        // it seems to be relatively safe.
-    }
 }
\ No newline at end of file
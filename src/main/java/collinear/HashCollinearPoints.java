@@ -0,0 +1,152 @@
+package collinear;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds the same segments as FastCollinearPoints (in the same order), but instead of sorting the points
+// by slope for every anchor, it groups them by an exact slope key in a hash map, so that every anchor takes
+// O(n) expected time. The key is the (dy, dx) pair reduced by gcd, with the sign normalized, packed into a long;
+// there are no floating-point ties, as long as the differences of the coordinates fit in an int (which
+// Point#compareTo relies on as well).
+public class HashCollinearPoints {
+    private static final int REQUESTED_COLLINEAR_COUNT = 4;
+
+    private final List<LineSegment> segments = new ArrayList<>();
+
+    public HashCollinearPoints(Point[] pointsA) {
+        this(IntPointSet.of(pointsA));
+    }
+
+    public HashCollinearPoints(IntPointSet pointSet) {
+        if (null == pointSet) {
+            throw new IllegalArgumentException();
+        }
+        IntPointSet points = pointSet.sortedDistinct();
+        int n = points.size();
+
+        SlopeMap slopes = new SlopeMap(n);
+        int[] ends = new int[n];
+        for (int i = 0; i < n; i++) {
+            slopes.clear();
+            // the points are sorted, so that the last one seen on a line is its end,
+            // and the anchor is the start of a line, unless one of the points before it lies on the line
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    slopes.add(getSlopeKey(points, i, j), j, j < i);
+                }
+            }
+
+            // report every line once, from its start; the ends are sorted as FastCollinearPoints does
+            int endCount = slopes.collectEnds(REQUESTED_COLLINEAR_COUNT - 1, ends);
+            Arrays.sort(ends, 0, endCount);
+            for (int k = 0; k < endCount; k++) {
+                segments.add(new LineSegment(points.toPoint(i), points.toPoint(ends[k])));
+            }
+        }
+    }
+
+    public int numberOfSegments() {
+        return segments.size();
+    }
+
+    public LineSegment[] segments() {
+        return segments.toArray(new LineSegment[0]);
+    }
+
+    // the direction from the point i to the point j reduced by gcd and turned so that dx > 0 or dx = 0 and dy > 0,
+    // packed as dy in the high and dx in the low half
+    private static long getSlopeKey(IntPointSet points, int i, int j) {
+        int dx = points.x(j) - points.x(i);
+        int dy = points.y(j) - points.y(i);
+        int gcd = gcd(Math.abs(dx), Math.abs(dy));
+        dx /= gcd;
+        dy /= gcd;
+        if (dx < 0 || 0 == dx && dy < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        return (long) dy << 32 | (dx & 0xffffffffL);
+    }
+
+    private static int gcd(int a, int b) {
+        while (0 != b) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // open-addressing map from slope keys to the number of points seen with that slope, the last of them
+    // and whether any of them precedes the anchor; it is cleared in O(1) by bumping the generation,
+    // since a slot only counts as occupied if it was written in the current one
+    private static final class SlopeMap {
+        private final long[] keys;
+        private final int[] generations;
+        private final int[] counts;
+        private final int[] lasts;
+        private final boolean[] preceded;
+        private final int mask;
+
+        // the slots written in the current generation, so that they can be visited without a full scan
+        private final int[] used;
+        private int usedCount;
+        private int generation;
+
+        SlopeMap(int maxSize) {
+            // at most half full
+            int capacity = Integer.highestOneBit(Math.max(2, maxSize) * 2 - 1) << 1;
+            keys = new long[capacity];
+            generations = new int[capacity];
+            counts = new int[capacity];
+            lasts = new int[capacity];
+            preceded = new boolean[capacity];
+            mask = capacity - 1;
+            used = new int[maxSize];
+        }
+
+        void clear() {
+            generation++;
+            usedCount = 0;
+        }
+
+        void add(long key, int index, boolean preceding) {
+            int slot = hash(key) & mask;
+            while (generation == generations[slot] && key != keys[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            if (generation != generations[slot]) {
+                generations[slot] = generation;
+                keys[slot] = key;
+                counts[slot] = 0;
+                preceded[slot] = false;
+                used[usedCount++] = slot;
+            }
+            counts[slot]++;
+            lasts[slot] = index;
+            preceded[slot] |= preceding;
+        }
+
+        // writes the last indices of the slopes, which have at least minCount points and none preceding,
+        // and returns their number
+        int collectEnds(int minCount, int[] ends) {
+            int endCount = 0;
+            for (int i = 0; i < usedCount; i++) {
+                int slot = used[i];
+                if (counts[slot] >= minCount && !preceded[slot]) {
+                    ends[endCount++] = lasts[slot];
+                }
+            }
+            return endCount;
+        }
+
+        // the finalizer of MurmurHash3, so that keys differing in either half spread over the table
+        private static int hash(long key) {
+            long h = key;
+            h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+            h = (h ^ (h >>> 33)) * 0xc4ceb93fe53aed63L;
+            return (int) (h ^ (h >>> 33));
+        }
+    }
+}
\ No newline at end of file
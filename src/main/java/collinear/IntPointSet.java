@@ -0,0 +1,88 @@
+package collinear;
+
+import java.util.Arrays;
+
+// Points kept as two int arrays (struct of arrays) rather than as Point objects: 8 bytes per point
+// instead of an object header, two fields and a reference, and scans over the coordinates touch
+// consecutive memory. Point objects are only created for the segments found.
+public final class IntPointSet {
+    private final int[] xs;
+    private final int[] ys;
+
+    // the point i is (xs[i], ys[i]); the arrays are copied
+    public IntPointSet(int[] xs, int[] ys) {
+        if (null == xs || null == ys || xs.length != ys.length) {
+            throw new IllegalArgumentException();
+        }
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+    }
+
+    private IntPointSet(int size) {
+        xs = new int[size];
+        ys = new int[size];
+    }
+
+    // the coordinates of the points, which must not be null
+    static IntPointSet of(Point[] points) {
+        if (null == points) {
+            throw new IllegalArgumentException();
+        }
+        IntPointSet set = new IntPointSet(points.length);
+        for (int i = 0; i < points.length; i++) {
+            if (null == points[i]) {
+                throw new IllegalArgumentException();
+            }
+            set.xs[i] = points[i].x();
+            set.ys[i] = points[i].y();
+        }
+        return set;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public int x(int i) {
+        return xs[i];
+    }
+
+    public int y(int i) {
+        return ys[i];
+    }
+
+    Point toPoint(int i) {
+        return new Point(xs[i], ys[i]);
+    }
+
+    // returns the points sorted as Point#compareTo does (by y, then by x), so that the indices compare
+    // as the points do; throws IllegalArgumentException if a point is repeated
+    IntPointSet sortedDistinct() {
+        // (y, x) packed into a long orders the same way, with x shifted to be compared as unsigned
+        long[] keys = new long[xs.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) ys[i] << 32 | (xs[i] ^ Integer.MIN_VALUE) & 0xffffffffL;
+        }
+        Arrays.sort(keys);
+        IntPointSet sorted = new IntPointSet(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0 && keys[i - 1] == keys[i]) {
+                throw new IllegalArgumentException();
+            }
+            sorted.ys[i] = (int) (keys[i] >> 32);
+            sorted.xs[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+        }
+        return sorted;
+    }
+
+    // the slope from the point i to the point j as defined by Point#slopeTo
+    double slope(int i, int j) {
+        if (ys[j] == ys[i]) {
+            return (xs[j] == xs[i]) ? Double.NEGATIVE_INFINITY : +0.0;
+        } else if (xs[j] == xs[i]) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            return (ys[j] - ys[i]) / (double) (xs[j] - xs[i]);
+        }
+    }
+}
\ No newline at end of file
@@ -65,4 +65,4 @@ public class LineSegment {
     public int hashCode() {
         throw new UnsupportedOperationException("hashCode() is not supported");
     }
-}
+}
\ No newline at end of file
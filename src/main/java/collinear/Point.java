@@ -98,6 +98,25 @@ public class Point implements Comparable<Point> {
         };
     }
 
+    /**
+     * Returns the <em>x</em>-coordinate of this point, for the detectors
+     * in this package, which compare slopes by exact integer arithmetic.
+     *
+     * @return the <em>x</em>-coordinate of this point
+     */
+    int x() {
+        return x;
+    }
+
+    /**
+     * Returns the <em>y</em>-coordinate of this point.
+     *
+     * @return the <em>y</em>-coordinate of this point
+     */
+    int y() {
+        return y;
+    }
+
     /**
      * Returns a string representation of this point.
      * This method is provide for debugging;
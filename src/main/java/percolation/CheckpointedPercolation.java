@@ -0,0 +1,176 @@
+package percolation;
+
+import java.util.Arrays;
+
+// n-by-n percolation system, which can be rolled back to a checkpoint.
+// The union-find does not compress paths, so that every change can be undone by the log in reverse order.
+final class CheckpointedPercolation {
+    private static final byte OPEN = 1;
+    private static final byte CONNECTED_TO_TOP = 2;
+    private static final byte CONNECTED_TO_BOTTOM = 4;
+    private static final byte CONNECTED_TO_BOTH = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+
+    // kinds of the log records
+    private static final byte OPENED = 0;
+    private static final byte ATTACHED = 1;
+    private static final byte STATUS_CHANGED = 2;
+    private static final byte PERCOLATED = 3;
+
+    private static final int INITIAL_LOG_CAPACITY = 16;
+
+    private final int size;
+    private final int[] parent;
+    private final int[] componentSize;
+    private final byte[] status;
+    private int openSitesCount;
+    private boolean percolates;
+
+    // each record is (kind, site, status of the site before the change)
+    private byte[] logKinds = new byte[INITIAL_LOG_CAPACITY];
+    private int[] logSites = new int[INITIAL_LOG_CAPACITY];
+    private byte[] logStatuses = new byte[INITIAL_LOG_CAPACITY];
+    private int logSize;
+
+    CheckpointedPercolation(int n) {
+        if (0 >= n) {
+            throw new IllegalArgumentException();
+        }
+        size = n;
+        parent = new int[n * n];
+        componentSize = new int[n * n];
+        status = new byte[n * n];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            componentSize[i] = 1;
+        }
+    }
+
+    // opens the site with the given 0-based row-major index if it is not open already
+    void open(int site) {
+        if (0 != (status[site] & OPEN)) {
+            return;
+        }
+        log(OPENED, site);
+        status[site] |= OPEN;
+        openSitesCount++;
+
+        int row = site / size;
+        int col = site - row * size;
+
+        byte connections = 0;
+        if (0 == row) {
+            connections |= CONNECTED_TO_TOP;
+        }
+        if (size - 1 == row) {
+            connections |= CONNECTED_TO_BOTTOM;
+        }
+        if (row > 0) {
+            connections |= connect(site, site - size);
+        }
+        if (col < size - 1) {
+            connections |= connect(site, site + 1);
+        }
+        if (row < size - 1) {
+            connections |= connect(site, site + size);
+        }
+        if (col > 0) {
+            connections |= connect(site, site - 1);
+        }
+
+        int root = find(site);
+        if (connections != (status[root] & connections)) {
+            log(STATUS_CHANGED, root);
+            status[root] |= connections;
+        }
+        if (!percolates && CONNECTED_TO_BOTH == (status[root] & CONNECTED_TO_BOTH)) {
+            log(PERCOLATED, root);
+            percolates = true;
+        }
+    }
+
+    int numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    boolean percolates() {
+        return percolates;
+    }
+
+    // returns a checkpoint, to which the system can be rolled back
+    int checkpoint() {
+        return logSize;
+    }
+
+    // undoes all the changes made since the checkpoint
+    void rollback(int checkpoint) {
+        while (logSize > checkpoint) {
+            logSize--;
+            int site = logSites[logSize];
+            switch (logKinds[logSize]) {
+                case OPENED:
+                    status[site] = logStatuses[logSize];
+                    openSitesCount--;
+                    break;
+                case ATTACHED:
+                    componentSize[parent[site]] -= componentSize[site];
+                    parent[site] = site;
+                    break;
+                case STATUS_CHANGED:
+                    status[site] = logStatuses[logSize];
+                    break;
+                default:
+                    percolates = false;
+                    break;
+            }
+        }
+    }
+
+    // forgets the log: the current state can no longer be rolled back
+    void commit() {
+        logSize = 0;
+    }
+
+    private byte connect(int site, int neighbour) {
+        if (0 == (status[neighbour] & OPEN)) {
+            return 0;
+        }
+        int siteRoot = find(site);
+        int neighbourRoot = find(neighbour);
+        byte connections = (byte) (status[neighbourRoot] & CONNECTED_TO_BOTH);
+        if (siteRoot != neighbourRoot) {
+            // weighted union: attach the smaller tree to the root of the larger one
+            if (componentSize[siteRoot] < componentSize[neighbourRoot]) {
+                attach(siteRoot, neighbourRoot);
+            } else {
+                attach(neighbourRoot, siteRoot);
+            }
+        }
+        return connections;
+    }
+
+    private void attach(int child, int root) {
+        log(ATTACHED, child);
+        parent[child] = root;
+        componentSize[root] += componentSize[child];
+    }
+
+    private int find(int site) {
+        int current = site;
+        while (current != parent[current]) {
+            current = parent[current];
+        }
+        return current;
+    }
+
+    private void log(byte kind, int site) {
+        if (logSize == logKinds.length) {
+            logKinds = Arrays.copyOf(logKinds, logSize * 2);
+            logSites = Arrays.copyOf(logSites, logSize * 2);
+            logStatuses = Arrays.copyOf(logStatuses, logSize * 2);
+        }
+        logKinds[logSize] = kind;
+        logSites[logSize] = site;
+        logStatuses[logSize] = status[site];
+        logSize++;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package percolation;
+
+// immutable snapshot of the clusters (components of open sites) of a percolation system
+public final class ClusterStatistics {
+    private final int openSites;
+    private final int clusterCount;
+    private final int largestClusterSize;
+    private final int openSitesWhenPercolated;
+
+    ClusterStatistics(int openSites, int clusterCount, int largestClusterSize, int openSitesWhenPercolated) {
+        this.openSites = openSites;
+        this.clusterCount = clusterCount;
+        this.largestClusterSize = largestClusterSize;
+        this.openSitesWhenPercolated = openSitesWhenPercolated;
+    }
+
+    // number of open sites
+    public int openSites() {
+        return openSites;
+    }
+
+    // number of clusters
+    public int clusterCount() {
+        return clusterCount;
+    }
+
+    // number of sites in the largest cluster, or -1 if cluster sizes are not tracked
+    public int largestClusterSize() {
+        return largestClusterSize;
+    }
+
+    // number of open sites at the moment the system started to percolate, or -1 if it does not percolate
+    public int openSitesWhenPercolated() {
+        return openSitesWhenPercolated;
+    }
+
+    @Override
+    public String toString() {
+        return "open sites = " + openSites + ", clusters = " + clusterCount + ", largest cluster = "
+                + largestClusterSize + ", percolated at = " + openSitesWhenPercolated;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package percolation;
+
+// The union-find core shared by the lattices: open sites are kept in a bitset, while the components are kept
+// in a single flat array, whose root entries also hold the rank and whether the component touches the top and
+// the bottom boundary. Sites are indexed row-major starting from 0, so that the top boundary consists of
+// the first sites and the bottom one of the last sites. Subclasses only know how the neighbours are laid out.
+abstract class LatticePercolation {
+    // the connections of a component are kept in the entry of its root along with the rank
+    private static final int CONNECTED_TO_TOP = 1;
+    private static final int CONNECTED_TO_BOTTOM = 2;
+    private static final int CONNECTED_TO_BOTH = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+    private static final int RANK_SHIFT = 2;
+
+    private final int siteCount;
+
+    // number of sites in the top (and the bottom) boundary
+    private final int boundarySize;
+
+    // one bit per site
+    private final long[] openSites;
+
+    // flat union-find: the entry of a non-root site is its parent + 1, while the entry of a root
+    // is -(rank << RANK_SHIFT | connections), so that a freshly allocated array consists of singletons
+    private final int[] parents;
+
+    private int openSitesCount;
+    private boolean percolates;
+
+    // cluster statistics: the counters are cheap, so they are always kept, while the sizes of the clusters
+    // need an extra int per site and are only kept (by the roots) once trackClusterSizes is called
+    private int clusterCount;
+    private int openSitesWhenPercolated = -1;
+    private int[] clusterSizes;
+    private int largestClusterSize;
+
+    LatticePercolation(int siteCount, int boundarySize) {
+        this.siteCount = siteCount;
+        this.boundarySize = boundarySize;
+        openSites = new long[getWordCount(siteCount)];
+        parents = new int[siteCount];
+    }
+
+    // takes the open sites from the bitmap (bit i % 64 of word i / 64 stands for site i);
+    // the subclass is expected to call connectOpenSites once it is initialized
+    LatticePercolation(int siteCount, int boundarySize, long[] openSites) {
+        if (null == openSites || getWordCount(siteCount) != openSites.length) {
+            throw new IllegalArgumentException();
+        }
+        int lastWordBits = siteCount % Long.SIZE;
+        if (0 != lastWordBits && 0 != openSites[openSites.length - 1] >>> lastWordBits) {
+            throw new IllegalArgumentException();
+        }
+        this.siteCount = siteCount;
+        this.boundarySize = boundarySize;
+        this.openSites = openSites.clone();
+        parents = new int[siteCount];
+    }
+
+    // returns the number of open sites
+    public int numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // starts keeping the cluster sizes, so that the size of the largest cluster is known;
+    // the sizes of the already existing clusters are counted at once
+    public void trackClusterSizes() {
+        if (null != clusterSizes) {
+            return;
+        }
+        int[] sizes = new int[siteCount];
+        for (int site = 0; site < siteCount; site++) {
+            if (isOpen(site)) {
+                int root = find(site);
+                sizes[root]++;
+                largestClusterSize = Math.max(largestClusterSize, sizes[root]);
+            }
+        }
+        clusterSizes = sizes;
+    }
+
+    // returns the current cluster statistics
+    public ClusterStatistics clusterStatistics() {
+        return new ClusterStatistics(openSitesCount, clusterCount, null == clusterSizes ? -1 : largestClusterSize,
+                openSitesWhenPercolated);
+    }
+
+    // opens the sites (0-based row-major indices) in the given order and returns the index in the array,
+    // at which the system has started to percolate, or -1 if it has not (or it has been percolating before)
+    public int openAll(int[] sites) {
+        if (null == sites) {
+            throw new IllegalArgumentException();
+        }
+        int percolatedAt = -1;
+        for (int i = 0; i < sites.length; i++) {
+            int site = sites[i];
+            if (0 > site || siteCount <= site) {
+                throw new IllegalArgumentException();
+            }
+            open(site);
+            if (-1 == percolatedAt && percolates) {
+                percolatedAt = i;
+            }
+        }
+        return percolatedAt;
+    }
+
+    // opens the site with the given 0-based index; no validation is done on this internal path
+    void open(int site) {
+        if (markOpen(site)) {
+            connectToBoundaries(connectNeighbours(site), site);
+        }
+    }
+
+    // opens the site unless it is already opened and returns whether it has been opened; a subclass, which knows
+    // the coordinates of the site, then joins the neighbours itself and passes the root to connectToBoundaries,
+    // rather than having connectNeighbours recover the coordinates from the index
+    final boolean markOpen(int site) {
+        if (isOpen(site)) {
+            return false;
+        }
+        openSites[site >>> 6] |= 1L << site;
+        addCluster(site);
+        return true;
+    }
+
+    // builds the components of the sites loaded from a bitmap in one row-major pass:
+    // since the sites are visited in order, every site only needs to be joined with its preceding neighbours.
+    // The sites are regarded as opened in that order, which is what openSitesWhenPercolated refers to
+    final void connectOpenSites() {
+        for (int word = 0; word < openSites.length; word++) {
+            long bits = openSites[word];
+            while (0 != bits) {
+                int site = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                addCluster(site);
+                connectToBoundaries(connectPrecedingNeighbours(site), site);
+            }
+        }
+    }
+
+    // joins the just opened site with its open neighbours (by means of connect)
+    // and returns the root of the resulting component
+    abstract int connectNeighbours(int site);
+
+    // the same as connectNeighbours, but only for the neighbours with lower indices
+    abstract int connectPrecedingNeighbours(int site);
+
+    boolean isOpen(int site) {
+        return 0 != (openSites[site >>> 6] & (1L << site));
+    }
+
+    boolean isFull(int site) {
+        return isOpen(site) && 0 != (-parents[find(site)] & CONNECTED_TO_TOP);
+    }
+
+    // joins the component of the given root with the one of the neighbour (if the latter is open)
+    // and returns the root of the result
+    final int connect(int root, int neighbour) {
+        if (!isOpen(neighbour)) {
+            return root;
+        }
+        int neighbourRoot = find(neighbour);
+        if (root == neighbourRoot) {
+            return root;
+        }
+
+        // union by rank
+        int rootEntry = -parents[root];
+        int neighbourRootEntry = -parents[neighbourRoot];
+        int rootRank = rootEntry >>> RANK_SHIFT;
+        int neighbourRootRank = neighbourRootEntry >>> RANK_SHIFT;
+        int connections = (rootEntry | neighbourRootEntry) & CONNECTED_TO_BOTH;
+        clusterCount--;
+        if (rootRank < neighbourRootRank) {
+            parents[root] = neighbourRoot + 1;
+            parents[neighbourRoot] = -(neighbourRootRank << RANK_SHIFT | connections);
+            mergeClusterSizes(root, neighbourRoot);
+            return neighbourRoot;
+        }
+        int rank = rootRank == neighbourRootRank ? rootRank + 1 : rootRank;
+        parents[neighbourRoot] = root + 1;
+        parents[root] = -(rank << RANK_SHIFT | connections);
+        mergeClusterSizes(neighbourRoot, root);
+        return root;
+    }
+
+    // accounts for the just opened site, which forms a cluster on its own
+    private void addCluster(int site) {
+        openSitesCount++;
+        clusterCount++;
+        if (null != clusterSizes) {
+            clusterSizes[site] = 1;
+            largestClusterSize = Math.max(largestClusterSize, 1);
+        }
+    }
+
+    private void mergeClusterSizes(int child, int root) {
+        if (null != clusterSizes) {
+            clusterSizes[root] += clusterSizes[child];
+            largestClusterSize = Math.max(largestClusterSize, clusterSizes[root]);
+        }
+    }
+
+    // marks the component of the site as connected to the boundaries the site belongs to
+    final void connectToBoundaries(int root, int site) {
+        int rootEntry = -parents[root];
+        if (site < boundarySize) {
+            rootEntry |= CONNECTED_TO_TOP;
+        }
+        if (site >= siteCount - boundarySize) {
+            rootEntry |= CONNECTED_TO_BOTTOM;
+        }
+        parents[root] = -rootEntry;
+        if (!percolates && CONNECTED_TO_BOTH == (rootEntry & CONNECTED_TO_BOTH)) {
+            percolates = true;
+            openSitesWhenPercolated = openSitesCount;
+        }
+    }
+
+    // path halving: every other site on the path gets linked to its grandparent
+    private int find(int site) {
+        int current = site;
+        while (parents[current] > 0) {
+            int parent = parents[current] - 1;
+            int grandParentEntry = parents[parent];
+            if (grandParentEntry <= 0) {
+                return parent;
+            }
+            parents[current] = grandParentEntry;
+            current = grandParentEntry - 1;
+        }
+        return current;
+    }
+
+    private static int getWordCount(int siteCount) {
+        return (int) (((long) siteCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    // validates the dimensions of a lattice and returns the number of its sites
+    static int getSiteCount(int... dimensions) {
+        long siteCount = 1;
+        for (int dimension : dimensions) {
+            if (0 >= dimension) {
+                throw new IllegalArgumentException();
+            }
+            siteCount *= dimension;
+            if (Integer.MAX_VALUE < siteCount) {
+                throw new IllegalArgumentException();
+            }
+        }
+        return (int) siteCount;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,317 @@
+package percolation;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Percolation for grids, which do not fit into the heap: sites are indexed by longs, while the open sites
+// and the union-find are kept in memory-mapped files, so that the OS pages them to the disk when needed.
+// The layout is the same as the one of Percolation, just with long entries.
+// The files take 8 bytes per site (tens of GB for large grids) and are already unlinked, but their space
+// is only given back once they are unmapped: callers must close the instance (try-with-resources),
+// otherwise the space stays taken until the garbage collector happens to collect the mappings.
+public class MappedPercolation implements AutoCloseable {
+    private static final long CONNECTED_TO_TOP = 1;
+    private static final long CONNECTED_TO_BOTTOM = 2;
+    private static final long CONNECTED_TO_BOTH = CONNECTED_TO_TOP | CONNECTED_TO_BOTTOM;
+    private static final int RANK_SHIFT = 2;
+
+    // a single mapping cannot exceed 2 GB, hence files are mapped by 1 GB segments of 2^27 longs
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final int size;
+
+    // one bit per site
+    private LongBuffer[] openSites;
+
+    // the entry of a non-root site is its parent + 1, while the entry of a root is -(rank << RANK_SHIFT | connections)
+    private LongBuffer[] parents;
+
+    // the mappings behind the buffers above, which close unmaps
+    private MappedByteBuffer[] mappings;
+
+    private long openSitesCount;
+    private boolean percolates;
+
+    // creates n-by-n grid, with all sites initially blocked, keeping its state in temporary files of the directory
+    public MappedPercolation(int n, Path directory) throws IOException {
+        if (0 >= n || null == directory) {
+            throw new IllegalArgumentException();
+        }
+        size = n;
+        long siteCount = (long) n * n;
+        long openSitesLength = (siteCount + Long.SIZE - 1) / Long.SIZE;
+        long mappingCount = (long) getSegmentCount(openSitesLength) + getSegmentCount(siteCount);
+        if (Integer.MAX_VALUE < mappingCount) {
+            throw new IllegalArgumentException();
+        }
+        mappings = new MappedByteBuffer[(int) mappingCount];
+        try {
+            openSites = map(directory, openSitesLength, mappings, 0);
+            parents = map(directory, siteCount, mappings, openSites.length);
+        } catch (IOException | RuntimeException e) {
+            try {
+                close();
+            } catch (IllegalStateException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    // unmaps the files, so that their space is given back at once; the instance cannot be used afterwards.
+    // Unmapping is best-effort: on runtimes without Unsafe#invokeCleaner (Java 8) the space is only given back
+    // once the garbage collector collects the mappings. Any other failure to unmap is thrown as
+    // IllegalStateException, after all the mappings have been tried
+    @Override
+    public void close() {
+        MappedByteBuffer[] toUnmap = mappings;
+        openSites = null;
+        parents = null;
+        mappings = null;
+        if (null == toUnmap) {
+            return;
+        }
+        IllegalStateException failure = null;
+        for (MappedByteBuffer mapping : toUnmap) {
+            if (null == mapping) {
+                continue;
+            }
+            try {
+                unmap(mapping);
+            } catch (IllegalStateException e) {
+                if (null == failure) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    // opens the site (row, col) if it is not open already
+    public void open(int row, int col) {
+        validateOpen();
+        validateIndex(row);
+        validateIndex(col);
+        open(getSiteIndex(row, col));
+    }
+
+    // opens the site with the given 0-based row-major index; no validation is done on this internal path
+    void open(long site) {
+        // open site unless it is already opened
+        if (!isOpen(site)) {
+            long wordIndex = site >>> 6;
+            put(openSites, wordIndex, get(openSites, wordIndex) | 1L << site);
+            openSitesCount++;
+
+            long row = site / size;
+            long col = site - row * size;
+
+            long root = site;
+
+            // top
+            if (row > 0) {
+                root = connect(root, site - size);
+            }
+
+            // right
+            if (col < size - 1) {
+                root = connect(root, site + 1);
+            }
+
+            // bottom
+            if (row < size - 1) {
+                root = connect(root, site + size);
+            }
+
+            // left
+            if (col > 0) {
+                root = connect(root, site - 1);
+            }
+
+            long rootEntry = -get(parents, root);
+            if (0 == row) {
+                rootEntry |= CONNECTED_TO_TOP;
+            }
+            if (size - 1 == row) {
+                rootEntry |= CONNECTED_TO_BOTTOM;
+            }
+            put(parents, root, -rootEntry);
+            if (CONNECTED_TO_BOTH == (rootEntry & CONNECTED_TO_BOTH)) {
+                percolates = true;
+            }
+        }
+    }
+
+    // is the site (row, col) open?
+    public boolean isOpen(int row, int col) {
+        validateOpen();
+        validateIndex(row);
+        validateIndex(col);
+        return isOpen(getSiteIndex(row, col));
+    }
+
+    // is the site (row, col) full?
+    public boolean isFull(int row, int col) {
+        validateOpen();
+        validateIndex(row);
+        validateIndex(col);
+        long site = getSiteIndex(row, col);
+        return isOpen(site) && 0 != (-get(parents, find(site)) & CONNECTED_TO_TOP);
+    }
+
+    // returns the number of open sites
+    public long numberOfOpenSites() {
+        return openSitesCount;
+    }
+
+    // does the system percolate?
+    public boolean percolates() {
+        return percolates;
+    }
+
+    private boolean isOpen(long site) {
+        return 0 != (get(openSites, site >>> 6) & (1L << site));
+    }
+
+    // joins the component of the given root with the one of the neighbour (if the latter is open)
+    // and returns the root of the result
+    private long connect(long root, long neighbour) {
+        if (!isOpen(neighbour)) {
+            return root;
+        }
+        long neighbourRoot = find(neighbour);
+        if (root == neighbourRoot) {
+            return root;
+        }
+
+        // union by rank
+        long rootEntry = -get(parents, root);
+        long neighbourRootEntry = -get(parents, neighbourRoot);
+        long rootRank = rootEntry >>> RANK_SHIFT;
+        long neighbourRootRank = neighbourRootEntry >>> RANK_SHIFT;
+        long connections = (rootEntry | neighbourRootEntry) & CONNECTED_TO_BOTH;
+        if (rootRank < neighbourRootRank) {
+            put(parents, root, neighbourRoot + 1);
+            put(parents, neighbourRoot, -(neighbourRootRank << RANK_SHIFT | connections));
+            return neighbourRoot;
+        }
+        long rank = rootRank == neighbourRootRank ? rootRank + 1 : rootRank;
+        put(parents, neighbourRoot, root + 1);
+        put(parents, root, -(rank << RANK_SHIFT | connections));
+        return root;
+    }
+
+    // path halving: every other site on the path gets linked to its grandparent
+    private long find(long site) {
+        long current = site;
+        long entry = get(parents, current);
+        while (entry > 0) {
+            long parent = entry - 1;
+            long grandParentEntry = get(parents, parent);
+            if (grandParentEntry <= 0) {
+                return parent;
+            }
+            put(parents, current, grandParentEntry);
+            current = grandParentEntry - 1;
+            entry = get(parents, current);
+        }
+        return current;
+    }
+
+    private void validateOpen() {
+        if (null == mappings) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private void validateIndex(int i) {
+        if (0 >= i || size < i) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private long getSiteIndex(int row, int col) {
+        return (long) (row - 1) * size + col - 1;
+    }
+
+    private static long get(LongBuffer[] segments, long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private static void put(LongBuffer[] segments, long index, long value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), value);
+    }
+
+    private static int getSegmentCount(long length) {
+        long segmentCount = (length + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+        if (Integer.MAX_VALUE < segmentCount) {
+            throw new IllegalArgumentException();
+        }
+        return (int) segmentCount;
+    }
+
+    // maps a zero-filled temporary file of the given number of longs, storing the mappings into
+    // mappings[from, from + segment count); the file is created anew, so that it can be sparse,
+    // and it is deleted as soon as it is mapped, while the mappings stay valid until they are unmapped
+    private static LongBuffer[] map(Path directory, long length, MappedByteBuffer[] mappings, int from)
+            throws IOException {
+        LongBuffer[] segments = new LongBuffer[getSegmentCount(length)];
+        try (FileChannel channel = createTempFile(directory)) {
+            for (int i = 0; i < segments.length; i++) {
+                long segmentLength = Math.min(SEGMENT_MASK + 1, length - ((long) i << SEGMENT_SHIFT));
+                mappings[from + i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << (SEGMENT_SHIFT + 3),
+                        segmentLength << 3);
+                segments[i] = mappings[from + i].order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+        return segments;
+    }
+
+    private static FileChannel createTempFile(Path directory) throws IOException {
+        while (true) {
+            Path file = directory.resolve("percolation" + Long.toHexString(ThreadLocalRandom.current().nextLong())
+                    + ".bin");
+            try {
+                return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.SPARSE, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (FileAlreadyExistsException e) {
+                // try another name
+            }
+        }
+    }
+
+    // releases the mapping at once by means of Unsafe#invokeCleaner (Java 9+); on older runtimes, which do not
+    // have it, the mapping is left to the garbage collector. The buffer must not be accessed afterwards
+    private static void unmap(MappedByteBuffer mapping) {
+        Method invokeCleaner;
+        try {
+            invokeCleaner = Class.forName("sun.misc.Unsafe").getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // left to the garbage collector
+            return;
+        }
+        try {
+            Field theUnsafe = invokeCleaner.getDeclaringClass().getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), mapping);
+        } catch (NoSuchFieldException | IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            throw new IllegalStateException("cannot unmap the file", e);
+        }
+    }
+}
\ No newline at end of file
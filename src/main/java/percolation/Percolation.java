@@ -1,114 +1,116 @@
 package percolation;
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
-
-public class Percolation {
-    private static final int TOP = 0;
-
-    private final WeightedQuickUnionUF quickUnionImpl;
-
-    // this UF is used to handle backwash cases, when water flows from the virtual bottom backwards, i.e. up
-    private final WeightedQuickUnionUF quickUnionImplWithoutBottom;
-
-    private final int size;
-    private final int bottom;
-
-    private final boolean[][] grid;
-    private int openSitesCount;
+public class Percolation extends LatticePercolation {
+    private final int rows;
+    private final int cols;
 
     // creates n-by-n grid, with all sites initially blocked
     public Percolation(int n) {
-        if (0 >= n) {
-            throw new IllegalArgumentException();
-        }
-        size = n;
-        bottom = size * size + 1;
-        quickUnionImpl = new WeightedQuickUnionUF(n * n + 2);
-        quickUnionImplWithoutBottom = new WeightedQuickUnionUF(n * n + 1);
-
-        // connect the first row with top
-        for (int i = 1; i <= size; i++) {
-            quickUnionImpl.union(TOP, i);
-            quickUnionImplWithoutBottom.union(TOP, i);
-        }
+        this(n, n);
+    }
 
-        // connect the last row with bottom
-        for (int i = 1; i <= size; i++) {
-            quickUnionImpl.union(bottom, getSiteIndex(size, i));
-        }
+    // creates rows-by-cols grid, with all sites initially blocked
+    public Percolation(int rows, int cols) {
+        super(getSiteCount(rows, cols), cols);
+        this.rows = rows;
+        this.cols = cols;
+    }
 
-        grid = new boolean[size][size];
+    // creates n-by-n grid with the sites open in the row-major bitmap (bit i % 64 of word i / 64 is site i)
+    public Percolation(int n, long[] openSites) {
+        this(n, n, openSites);
+    }
+
+    // creates rows-by-cols grid with the sites open in the row-major bitmap (bit i % 64 of word i / 64 is site i)
+    public Percolation(int rows, int cols, long[] openSites) {
+        super(getSiteCount(rows, cols), cols, openSites);
+        this.rows = rows;
+        this.cols = cols;
+        connectOpenSites();
     }
 
     // opens the site (row, col) if it is not open already
     public void open(int row, int col) {
-        validateIndex(row);
-        validateIndex(col);
-
-        // open site unless it is already opened
-        if (!grid[row - 1][col - 1]) {
-            grid[row - 1][col - 1] = true;
-            openSitesCount++;
-
-            // top
-            if (row > 1 && grid[row - 2][col - 1]) {
-                quickUnionImpl.union(getSiteIndex(row, col), getSiteIndex(row - 1, col));
-                quickUnionImplWithoutBottom.union(getSiteIndex(row, col), getSiteIndex(row - 1, col));
-            }
-
-            // right
-            if (col < size && grid[row - 1][col]) {
-                quickUnionImpl.union(getSiteIndex(row, col), getSiteIndex(row, col + 1));
-                quickUnionImplWithoutBottom.union(getSiteIndex(row, col), getSiteIndex(row, col + 1));
-            }
-
-            // bottom
-            if (row < size && grid[row][col - 1]) {
-                quickUnionImpl.union(getSiteIndex(row, col), getSiteIndex(row + 1, col));
-                quickUnionImplWithoutBottom.union(getSiteIndex(row, col), getSiteIndex(row + 1, col));
-            }
-
-            // left
-            if (col > 1 && grid[row - 1][col - 2]) {
-                quickUnionImpl.union(getSiteIndex(row, col), getSiteIndex(row, col - 1));
-                quickUnionImplWithoutBottom.union(getSiteIndex(row, col), getSiteIndex(row, col - 1));
-            }
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        int site = getSiteIndex(row, col);
+        if (markOpen(site)) {
+            connectToBoundaries(connectNeighbours(site, row - 1, col - 1), site);
         }
     }
 
     // is the site (row, col) open?
     public boolean isOpen(int row, int col) {
-        validateIndex(row);
-        validateIndex(col);
-        return grid[row - 1][col - 1];
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        return isOpen(getSiteIndex(row, col));
     }
 
     // is the site (row, col) full?
     public boolean isFull(int row, int col) {
-        validateIndex(row);
-        validateIndex(col);
-        return isOpen(row, col) &&
-                quickUnionImplWithoutBottom.find(TOP) == quickUnionImplWithoutBottom.find(getSiteIndex(row, col));
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        return isFull(getSiteIndex(row, col));
+    }
+
+    @Override
+    int connectNeighbours(int site) {
+        int row = site / cols;
+        return connectNeighbours(site, row, site - row * cols);
     }
 
-    // returns the number of open sites
-    public int numberOfOpenSites() {
-        return openSitesCount;
+    // the same as connectNeighbours(site) with the 0-based coordinates of the site already known
+    private int connectNeighbours(int site, int row, int col) {
+        int root = site;
+
+        // top
+        if (row > 0) {
+            root = connect(root, site - cols);
+        }
+
+        // right
+        if (col < cols - 1) {
+            root = connect(root, site + 1);
+        }
+
+        // bottom
+        if (row < rows - 1) {
+            root = connect(root, site + cols);
+        }
+
+        // left
+        if (col > 0) {
+            root = connect(root, site - 1);
+        }
+        return root;
     }
 
-    // does the system percolate?
-    public boolean percolates() {
-        // in case the grid consists of 1 element only we need to check that the site is open
-        return quickUnionImpl.find(TOP) == quickUnionImpl.find(bottom) && openSitesCount > 0;
+    @Override
+    int connectPrecedingNeighbours(int site) {
+        int row = site / cols;
+        int col = site - row * cols;
+
+        int root = site;
+
+        // top
+        if (row > 0) {
+            root = connect(root, site - cols);
+        }
+
+        // left
+        if (col > 0) {
+            root = connect(root, site - 1);
+        }
+        return root;
     }
 
-    private void validateIndex(int i) {
+    private static void validateIndex(int i, int size) {
         if (0 >= i || size < i) {
             throw new IllegalArgumentException();
         }
     }
 
     private int getSiteIndex(int row, int col) {
-        return (row - 1) * size + col;
+        return (row - 1) * cols + col - 1;
     }
 }
\ No newline at end of file
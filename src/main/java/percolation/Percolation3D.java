@@ -0,0 +1,145 @@
+package percolation;
+
+// rows-by-cols-by-layers cubic lattice with 6-neighbour connectivity;
+// the system percolates if the first row is connected with the last one
+public class Percolation3D extends LatticePercolation {
+    private final int rows;
+    private final int cols;
+    private final int layers;
+
+    // number of sites between two vertically adjacent sites
+    private final int rowStride;
+
+    // creates n-by-n-by-n lattice, with all sites initially blocked
+    public Percolation3D(int n) {
+        this(n, n, n);
+    }
+
+    // creates rows-by-cols-by-layers lattice, with all sites initially blocked
+    public Percolation3D(int rows, int cols, int layers) {
+        super(getSiteCount(rows, cols, layers), cols * layers);
+        this.rows = rows;
+        this.cols = cols;
+        this.layers = layers;
+        rowStride = cols * layers;
+    }
+
+    // creates rows-by-cols-by-layers lattice with the sites open in the bitmap
+    // (bit i % 64 of word i / 64 is site i, the sites being ordered by row, then by col, then by layer)
+    public Percolation3D(int rows, int cols, int layers, long[] openSites) {
+        super(getSiteCount(rows, cols, layers), cols * layers, openSites);
+        this.rows = rows;
+        this.cols = cols;
+        this.layers = layers;
+        rowStride = cols * layers;
+        connectOpenSites();
+    }
+
+    // opens the site (row, col, layer) if it is not open already
+    public void open(int row, int col, int layer) {
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        validateIndex(layer, layers);
+        int site = getSiteIndex(row, col, layer);
+        if (markOpen(site)) {
+            connectToBoundaries(connectNeighbours(site, row - 1, col - 1, layer - 1), site);
+        }
+    }
+
+    // is the site (row, col, layer) open?
+    public boolean isOpen(int row, int col, int layer) {
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        validateIndex(layer, layers);
+        return isOpen(getSiteIndex(row, col, layer));
+    }
+
+    // is the site (row, col, layer) full?
+    public boolean isFull(int row, int col, int layer) {
+        validateIndex(row, rows);
+        validateIndex(col, cols);
+        validateIndex(layer, layers);
+        return isFull(getSiteIndex(row, col, layer));
+    }
+
+    // only used by the paths, which get bare indices (openAll); open(row, col, layer) passes the coordinates
+    @Override
+    int connectNeighbours(int site) {
+        int row = site / rowStride;
+        int rowOffset = site - row * rowStride;
+        int col = rowOffset / layers;
+        return connectNeighbours(site, row, col, rowOffset - col * layers);
+    }
+
+    // the same as connectNeighbours(site) with the 0-based coordinates of the site already known
+    private int connectNeighbours(int site, int row, int col, int layer) {
+        int root = site;
+
+        // top
+        if (row > 0) {
+            root = connect(root, site - rowStride);
+        }
+
+        // bottom
+        if (row < rows - 1) {
+            root = connect(root, site + rowStride);
+        }
+
+        // right
+        if (col < cols - 1) {
+            root = connect(root, site + layers);
+        }
+
+        // left
+        if (col > 0) {
+            root = connect(root, site - layers);
+        }
+
+        // back
+        if (layer < layers - 1) {
+            root = connect(root, site + 1);
+        }
+
+        // front
+        if (layer > 0) {
+            root = connect(root, site - 1);
+        }
+        return root;
+    }
+
+    @Override
+    int connectPrecedingNeighbours(int site) {
+        int row = site / rowStride;
+        int rowOffset = site - row * rowStride;
+        int col = rowOffset / layers;
+        int layer = rowOffset - col * layers;
+
+        int root = site;
+
+        // top
+        if (row > 0) {
+            root = connect(root, site - rowStride);
+        }
+
+        // left
+        if (col > 0) {
+            root = connect(root, site - layers);
+        }
+
+        // front
+        if (layer > 0) {
+            root = connect(root, site - 1);
+        }
+        return root;
+    }
+
+    private static void validateIndex(int i, int size) {
+        if (0 >= i || size < i) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private int getSiteIndex(int row, int col, int layer) {
+        return ((row - 1) * cols + col - 1) * layers + layer - 1;
+    }
+}
\ No newline at end of file
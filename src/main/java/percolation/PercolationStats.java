@@ -1,88 +1,317 @@
 package percolation;
 
-import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import random.RandomSource;
+import random.SplittableRandomSource;
+import random.StdRandomSource;
 
 public class PercolationStats {
 
     private static final double CONFIDENCE_FACTOR = 1.96;
 
-    private final double[] results;
+    // the granularity is fixed, so that the way random streams are split does not depend on the pool
+    private static final int TRIALS_PER_TASK = 8;
+
+    // the least number of trials, after which the stddev estimate is trusted when running until precision
+    private static final int MIN_TRIALS = 30;
+
+    private final int trials;
+    private final double mean;
+    private final double stddev;
+    private final double confidenceLo;
+    private final double confidenceHi;
 
     // perform independent trials on an n-by-n grid
     public PercolationStats(int n, int trials) {
-        validateInteger(n);
-        validateInteger(trials);
-        results = new double[trials];
+        this(n, trials, TrialStrategy.OPEN_UNTIL_PERCOLATES);
+    }
+
+    // perform independent trials on an n-by-n grid, each of them done by the given strategy
+    public PercolationStats(int n, int trials, TrialStrategy strategy) {
+        this(n, trials, strategy, StdRandomSource.INSTANCE);
+    }
+
+    // perform independent trials on an n-by-n grid, each of them done by the given strategy
+    // with a source split from the given one
+    public PercolationStats(int n, int trials, TrialStrategy strategy, RandomSource random) {
+        this(performTrials(n, trials, strategy, random));
+    }
+
+    // perform independent trials on an n-by-n grid using the pool; the results depend on the seed only
+    public PercolationStats(int n, int trials, ForkJoinPool pool, long seed) {
+        this(n, trials, TrialStrategy.OPEN_UNTIL_PERCOLATES, pool, seed);
+    }
+
+    // perform independent trials on an n-by-n grid using the pool; the results depend on the seed only
+    // and are the same for every strategy
+    public PercolationStats(int n, int trials, TrialStrategy strategy, ForkJoinPool pool, long seed) {
+        this(n, trials, strategy, pool, new SplittableRandomSource(seed));
+    }
+
+    // perform independent trials on an n-by-n grid using the pool; the results depend on the source only
+    // (as long as it can be split reproducibly) and are the same for every strategy
+    public PercolationStats(int n, int trials, TrialStrategy strategy, ForkJoinPool pool, RandomSource random) {
+        this(performTrials(n, trials, strategy, pool, random));
+    }
+
+    private PercolationStats(RunningStatistics statistics) {
+        trials = (int) statistics.count();
+        mean = statistics.mean();
+        stddev = statistics.stddev();
+        confidenceLo = mean - getHalfWidth(stddev, trials);
+        confidenceHi = mean + getHalfWidth(stddev, trials);
+    }
+
+    // perform trials on an n-by-n grid until the half-width of the 95% confidence interval gets below
+    // the given precision, but no more than maxTrials of them
+    public static PercolationStats untilPrecision(int n, double precision, int maxTrials) {
+        return untilPrecision(n, precision, maxTrials, StdRandomSource.INSTANCE);
+    }
 
-        for (int i = 0; i < results.length; i++) {
-            results[i] = (double) performPercolation(n) / (n * n);
+    // the same as untilPrecision(n, precision, maxTrials), drawing the random numbers from the given source
+    public static PercolationStats untilPrecision(int n, double precision, int maxTrials, RandomSource random) {
+        validateSize(n);
+        if (0 >= maxTrials || !(precision > 0) || null == random) {
+            throw new IllegalArgumentException();
         }
+
+        RunningStatistics statistics = new RunningStatistics();
+        do {
+            statistics.add((double) performPercolation(n, random.split()) / (n * n));
+        } while (statistics.count() < maxTrials && (statistics.count() < MIN_TRIALS
+                || getHalfWidth(statistics.stddev(), statistics.count()) >= precision));
+        return new PercolationStats(statistics);
     }
 
     // sample mean of percolation threshold
     public double mean() {
-        return StdStats.mean(results);
+        return mean;
     }
 
     // sample standard deviation of percolation threshold
     public double stddev() {
-        return StdStats.stddev(results);
+        return stddev;
     }
 
 
     // low endpoint of 95% confidence interval
     public double confidenceLo() {
-        double meanValue = mean();
-        double stddevValue = stddev();
-        return meanValue - stddevValue * CONFIDENCE_FACTOR / Math.sqrt(results.length);
+        return confidenceLo;
     }
 
     // high endpoint of 95% confidence interval
     public double confidenceHi() {
-        double meanValue = mean();
-        double stddevValue = stddev();
-        return meanValue + stddevValue * CONFIDENCE_FACTOR / Math.sqrt(results.length);
+        return confidenceHi;
+    }
+
+    // number of the trials performed
+    public int trials() {
+        return trials;
     }
 
     // test client (see below)
     public static void main(String[] args) {
         int n = 0;
         int trials = 0;
+        int threads = 0;
+        long seed = System.nanoTime();
         try {
             n = Integer.parseInt(args[0]);
             trials = Integer.parseInt(args[1]);
+            if (args.length > 2) {
+                threads = Integer.parseInt(args[2]);
+            }
+            if (args.length > 3) {
+                seed = Long.parseLong(args[3]);
+            }
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException(e);
         }
-        PercolationStats percolationStats = new PercolationStats(n, trials);
+        PercolationStats percolationStats;
+        if (0 == threads) {
+            percolationStats = new PercolationStats(n, trials);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                percolationStats = new PercolationStats(n, trials, pool, seed);
+            } finally {
+                pool.shutdown();
+            }
+        }
         System.out.println("mean                    = " + percolationStats.mean());
         System.out.println("stddev                  = " + percolationStats.stddev());
         System.out.println("95% confidence interval = [" + percolationStats.confidenceLo() + ", "
                 + percolationStats.confidenceHi() + "]");
     }
 
-    private static int performPercolation(int size) {
+    private static int performPercolation(int size, RandomSource random) {
+        int siteCount = LatticePercolation.getSiteCount(size, size);
+        int[] sites = getIdentityPermutation(siteCount);
+
+        // open sites in the order of a random permutation, which is generated lazily by an incremental
+        // Fisher-Yates shuffle: no site is picked twice, so exactly one random draw is done per opened site
         Percolation percolation = new Percolation(size);
-        while (!percolation.percolates()) {
-            int row = 1 + getRandomInteger(size);
-            int col = 1 + getRandomInteger(size);
-            while (percolation.isOpen(row, col)) {
-                row = 1 + getRandomInteger(size);
-                col = 1 + getRandomInteger(size);
-            }
-            percolation.open(row, col);
+        for (int i = 0; !percolation.percolates(); i++) {
+            int j = i + random.nextInt(siteCount - i);
+            int site = sites[j];
+            sites[j] = sites[i];
+            sites[i] = site;
+            percolation.open(site);
         }
         return percolation.numberOfOpenSites();
     }
 
-    private static int getRandomInteger(int upperBound) {
-        return StdRandom.uniform(upperBound);
+    private static int performBisection(int size, RandomSource random) {
+        int siteCount = LatticePercolation.getSiteCount(size, size);
+        int[] sites = getIdentityPermutation(siteCount);
+
+        // fix the opening order in advance; the draws are the same as the ones of performPercolation
+        for (int i = 0; i < siteCount - 1; i++) {
+            int j = i + random.nextInt(siteCount - i);
+            int site = sites[j];
+            sites[j] = sites[i];
+            sites[i] = site;
+        }
+
+        // the smallest percolating prefix of the order lies in (opened, percolating]: open the first half of
+        // the range in a batch and either keep it or roll it back, depending on whether the system percolates
+        CheckpointedPercolation percolation = new CheckpointedPercolation(size);
+        int opened = 0;
+        int percolating = siteCount;
+        while (percolating - opened > 1) {
+            int middle = (opened + percolating) >>> 1;
+            int checkpoint = percolation.checkpoint();
+            for (int i = opened; i < middle; i++) {
+                percolation.open(sites[i]);
+            }
+            if (percolation.percolates()) {
+                percolation.rollback(checkpoint);
+                percolating = middle;
+            } else {
+                percolation.commit();
+                opened = middle;
+            }
+        }
+        return percolating;
+    }
+
+    private static int[] getIdentityPermutation(int length) {
+        int[] permutation = new int[length];
+        for (int i = 0; i < length; i++) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+
+    private static RunningStatistics performTrials(int n, int trials, TrialStrategy strategy, RandomSource random) {
+        validateSize(n);
+        validateInteger(trials);
+        validateStrategy(strategy);
+        validateRandom(random);
+
+        RunningStatistics statistics = new RunningStatistics();
+        for (int i = 0; i < trials; i++) {
+            statistics.add((double) strategy.performTrial(n, random.split()) / (n * n));
+        }
+        return statistics;
+    }
+
+    private static RunningStatistics performTrials(int n, int trials, TrialStrategy strategy, ForkJoinPool pool,
+            RandomSource random) {
+        validateSize(n);
+        validateInteger(trials);
+        validateStrategy(strategy);
+        validateRandom(random);
+        if (null == pool) {
+            throw new IllegalArgumentException();
+        }
+        return pool.invoke(new TrialsTask(n, strategy, 0, trials, random));
     }
 
-    private void validateInteger(int i) {
+    private static double getHalfWidth(double stddev, long trials) {
+        return stddev * CONFIDENCE_FACTOR / Math.sqrt(trials);
+    }
+
+    private static void validateInteger(int i) {
         if (0 >= i) {
             throw new IllegalArgumentException();
         }
     }
+
+    // the n-by-n grid has to be positive and small enough for its sites to be numbered by an int
+    private static void validateSize(int n) {
+        LatticePercolation.getSiteCount(n, n);
+    }
+
+    private static void validateStrategy(TrialStrategy strategy) {
+        if (null == strategy) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static void validateRandom(RandomSource random) {
+        if (null == random) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // the way a single trial finds the number of sites to be opened for the system to percolate
+    public enum TrialStrategy {
+        // opens random sites one by one checking whether the system percolates after each of them
+        OPEN_UNTIL_PERCOLATES {
+            int performTrial(int size, RandomSource random) {
+                return performPercolation(size, random);
+            }
+        },
+
+        // fixes the random opening order and binary searches for the smallest percolating prefix of it,
+        // so that percolation is checked O(log n^2) times only
+        BISECTION {
+            int performTrial(int size, RandomSource random) {
+                return performBisection(size, random);
+            }
+        };
+
+        abstract int performTrial(int size, RandomSource random);
+    }
+
+    // performs trials [from, to) and returns their statistics merged in a fixed order
+    private static class TrialsTask extends RecursiveTask<RunningStatistics> {
+        private final int size;
+        private final TrialStrategy strategy;
+        private final int from;
+        private final int to;
+        private final RandomSource random;
+
+        public TrialsTask(int size, TrialStrategy strategy, int from, int to, RandomSource random) {
+            this.size = size;
+            this.strategy = strategy;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected RunningStatistics compute() {
+            if (to - from <= TRIALS_PER_TASK) {
+                // every trial gets its own stream, so that the results do not depend on how many draws
+                // the previous trials have made
+                RunningStatistics statistics = new RunningStatistics();
+                for (int i = from; i < to; i++) {
+                    statistics.add((double) strategy.performTrial(size, random.split()) / (size * size));
+                }
+                return statistics;
+            }
+            int middle = (from + to) >>> 1;
+            // split before forking, so that each half always gets the same stream
+            TrialsTask left = new TrialsTask(size, strategy, from, middle, random.split());
+            TrialsTask right = new TrialsTask(size, strategy, middle, to, random);
+            left.fork();
+            RunningStatistics rightStatistics = right.compute();
+            RunningStatistics statistics = left.join();
+            statistics.merge(rightStatistics);
+            return statistics;
+        }
+    }
 }
\ No newline at end of file
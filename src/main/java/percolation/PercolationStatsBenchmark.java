@@ -0,0 +1,40 @@
+package percolation;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PercolationStatsBenchmark {
+    private static final int WARMUP_ROUNDS = 3;
+
+    // compares the trial strategies on the same seed: the thresholds they find are the same,
+    // so the means must coincide and only the elapsed time differs
+    public static void main(String[] args) {
+        int n = 0;
+        int trials = 0;
+        long seed = 0;
+        try {
+            n = Integer.parseInt(args[0]);
+            trials = Integer.parseInt(args[1]);
+            if (args.length > 2) {
+                seed = Long.parseLong(args[2]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            for (PercolationStats.TrialStrategy strategy : PercolationStats.TrialStrategy.values()) {
+                for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                    new PercolationStats(n, trials, strategy, pool, seed + i + 1);
+                }
+                long start = System.nanoTime();
+                PercolationStats percolationStats = new PercolationStats(n, trials, strategy, pool, seed);
+                long elapsed = System.nanoTime() - start;
+                System.out.println(strategy + ": mean = " + percolationStats.mean() + ", "
+                        + elapsed / 1000000 + " ms");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package percolation;
+
+// Mean and variance of a stream of values in O(1) memory (Welford's algorithm).
+// Two instances can be merged, so that the values may be accumulated in parallel.
+final class RunningStatistics {
+    private long count;
+    private double mean;
+    // sum of squared deviations from the mean
+    private double squaredDeviations;
+
+    void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+
+    // adds all the values accumulated by the other instance (Chan's formula)
+    void merge(RunningStatistics other) {
+        if (0 == other.count) {
+            return;
+        }
+        long mergedCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / mergedCount;
+        squaredDeviations += other.squaredDeviations + delta * delta * count / mergedCount * other.count;
+        count = mergedCount;
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return 0 == count ? Double.NaN : mean;
+    }
+
+    // sample standard deviation, the same as StdStats#stddev computes
+    double stddev() {
+        return Math.sqrt(squaredDeviations / (count - 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package permutation;
+
+import java.util.NoSuchElementException;
+import random.RandomSource;
+import random.StdRandomSource;
+
+// Immutable weighted sampler (Vose's alias method): O(n) to build, O(1) per sample.
+// Every column i holds item i with probability probabilities[i] and item aliases[i] otherwise.
+public class AliasSampler<Item> {
+
+    private final RandomSource random;
+    private final Item[] items;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    // builds a sampler choosing items[i] with probability proportional to weights[i]
+    public AliasSampler(Item[] items, double[] weights) {
+        this(items, weights, StdRandomSource.INSTANCE);
+    }
+
+    // the same as AliasSampler(items, weights), drawing the random numbers from the given source
+    public AliasSampler(Item[] items, double[] weights, RandomSource random) {
+        if (null == items || null == weights || items.length != weights.length || null == random) {
+            throw new IllegalArgumentException();
+        }
+        this.random = random;
+        int n = items.length;
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            if (null == items[i] || !(weights[i] > 0) || Double.isInfinite(weights[i])) {
+                throw new IllegalArgumentException();
+            }
+            total += weights[i];
+        }
+        this.items = items.clone();
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        // scaled weights average to 1: columns below 1 get topped up by the ones above 1
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (0 != smallCount && 0 != largeCount) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // what is left is 1 up to rounding errors
+        while (0 != largeCount) {
+            probabilities[large[--largeCount]] = 1;
+        }
+        while (0 != smallCount) {
+            probabilities[small[--smallCount]] = 1;
+        }
+    }
+
+    // return the number of items
+    public int size() {
+        return items.length;
+    }
+
+    // return an item chosen with probability proportional to its weight
+    public Item sample() {
+        if (0 == items.length) {
+            throw new NoSuchElementException();
+        }
+        int column = random.nextInt(items.length);
+        return random.nextDouble() < probabilities[column] ? items[column] : items[aliases[column]];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+package permutation;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread-safe deque of a fixed capacity for handing work over between threads: put blocks while the deque
+// is full and take blocks while it is empty, so that fast producers get slowed down to the pace of the consumers.
+// It waits on the conditions of a ReentrantLock rather than in synchronized blocks, so that a blocked virtual
+// thread releases its carrier thread.
+public class BoundedBlockingDeque<Item> implements Iterable<Item> {
+
+    // ring buffer: the items occupy [head, head + size) modulo capacity
+    private final Item[] items;
+    private int head;
+    private int size;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // construct an empty deque, which holds up to capacity items
+    public BoundedBlockingDeque(int capacity) {
+        if (0 >= capacity) {
+            throw new IllegalArgumentException();
+        }
+        items = (Item[]) new Object[capacity];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return 0 == size();
+    }
+
+    // return the number of items on the deque
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // return the number of items, which can be added without blocking
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return items.length - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front, waiting for space if the deque is full
+    public void putFirst(Item item) throws InterruptedException {
+        validateItem(item);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                notFull.await();
+            }
+            linkFirst(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back, waiting for space if the deque is full
+    public void putLast(Item item) throws InterruptedException {
+        validateItem(item);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                notFull.await();
+            }
+            linkLast(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front unless the deque is full; return whether it has been added
+    public boolean offerFirst(Item item) {
+        validateItem(item);
+        lock.lock();
+        try {
+            if (size == items.length) {
+                return false;
+            }
+            linkFirst(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back unless the deque is full; return whether it has been added
+    public boolean offerLast(Item item) {
+        validateItem(item);
+        lock.lock();
+        try {
+            if (size == items.length) {
+                return false;
+            }
+            linkLast(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the front, waiting for space up to the timeout; return whether it has been added
+    public boolean offerFirst(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        validateItem(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                if (0 >= nanos) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkFirst(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add the item to the back, waiting for space up to the timeout; return whether it has been added
+    public boolean offerLast(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+        validateItem(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == items.length) {
+                if (0 >= nanos) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            linkLast(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, waiting for one if the deque is empty
+    public Item takeFirst() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (0 == size) {
+                notEmpty.await();
+            }
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, waiting for one if the deque is empty
+    public Item takeLast() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (0 == size) {
+                notEmpty.await();
+            }
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, or return null if the deque is empty
+    public Item pollFirst() {
+        lock.lock();
+        try {
+            return 0 == size ? null : unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, or return null if the deque is empty
+    public Item pollLast() {
+        lock.lock();
+        try {
+            return 0 == size ? null : unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the front, waiting for one up to the timeout; return null on timeout
+    public Item pollFirst(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (0 == size) {
+                if (0 >= nanos) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // remove and return the item from the back, waiting for one up to the timeout; return null on timeout
+    public Item pollLast(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (0 == size) {
+                if (0 >= nanos) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return unlinkLast();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // return an iterator over a snapshot of the items in order from front to back
+    public Iterator<Item> iterator() {
+        Object[] snapshot;
+        lock.lock();
+        try {
+            snapshot = new Object[size];
+            int headPart = Math.min(size, items.length - head);
+            System.arraycopy(items, head, snapshot, 0, headPart);
+            System.arraycopy(items, 0, snapshot, headPart, size - headPart);
+        } finally {
+            lock.unlock();
+        }
+        return new ItemIterator(snapshot);
+    }
+
+    // the following four are called with the lock held and with the deque known to be not full (or not empty)
+
+    private void linkFirst(Item item) {
+        head = 0 == head ? items.length - 1 : head - 1;
+        items[head] = item;
+        size++;
+        notEmpty.signal();
+    }
+
+    private void linkLast(Item item) {
+        int tail = head + size;
+        items[tail < items.length ? tail : tail - items.length] = item;
+        size++;
+        notEmpty.signal();
+    }
+
+    private Item unlinkFirst() {
+        Item item = items[head];
+        items[head] = null;
+        head = items.length - 1 == head ? 0 : head + 1;
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private Item unlinkLast() {
+        int tail = head + size - 1;
+        if (tail >= items.length) {
+            tail -= items.length;
+        }
+        Item item = items[tail];
+        items[tail] = null;
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private static void validateItem(Object item) {
+        if (null == item) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private class ItemIterator implements Iterator<Item> {
+
+        private final Object[] snapshot;
+        private int processed;
+
+        public ItemIterator(Object[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public boolean hasNext() {
+            return snapshot.length != processed;
+        }
+
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (Item) snapshot[processed++];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
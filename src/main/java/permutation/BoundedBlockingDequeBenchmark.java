@@ -0,0 +1,132 @@
+package permutation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// measures the throughput of BoundedBlockingDeque and the latency of its items (from putLast to takeFirst)
+// with many producers blocking on a small deque. The producers and the consumers run on virtual threads
+// if the runtime has them (Java 21+, looked up reflectively since the code targets Java 8) and on platform
+// threads otherwise; the latencies are collected into power-of-two histograms, so that recording is cheap
+public class BoundedBlockingDequeBenchmark {
+    private static final int ITEMS = 1000000;
+    private static final int CAPACITY = 1024;
+    private static final int CONSUMERS = 4;
+    private static final int[] PRODUCER_COUNTS = {1, 16, 1024, 10000};
+    // thousands of platform threads only measure the scheduler
+    private static final int MAX_PLATFORM_PRODUCERS = 1024;
+
+    // consumers stop on taking it
+    private static final Long POISON = Long.MIN_VALUE;
+
+    public static void main(String[] args) throws InterruptedException {
+        boolean virtual = null != getVirtualExecutorFactory();
+        System.out.println((virtual ? "virtual" : "platform") + " threads, " + ITEMS + " items, capacity "
+                + CAPACITY + ", " + CONSUMERS + " consumers");
+        for (int producers : PRODUCER_COUNTS) {
+            if (virtual || producers <= MAX_PLATFORM_PRODUCERS) {
+                run(producers);
+            }
+        }
+    }
+
+    private static void run(final int producers) throws InterruptedException {
+        final BoundedBlockingDeque<Long> deque = new BoundedBlockingDeque<Long>(CAPACITY);
+        final long[][] histograms = new long[CONSUMERS][Long.SIZE];
+        final CountDownLatch producersDone = new CountDownLatch(producers);
+        ExecutorService executor = newExecutor();
+        long start = System.nanoTime();
+        for (int i = 0; i < CONSUMERS; i++) {
+            final long[] histogram = histograms[i];
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        while (true) {
+                            Long item = deque.takeFirst();
+                            if (POISON.equals(item)) {
+                                return;
+                            }
+                            long latency = System.nanoTime() - item;
+                            histogram[Long.SIZE - Long.numberOfLeadingZeros(Math.max(latency, 1)) - 1]++;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < producers; i++) {
+            final int count = ITEMS / producers + (i < ITEMS % producers ? 1 : 0);
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < count; j++) {
+                            deque.putLast(System.nanoTime());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        producersDone.countDown();
+                    }
+                }
+            });
+        }
+        producersDone.await();
+        for (int i = 0; i < CONSUMERS; i++) {
+            deque.putLast(POISON);
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        long[] histogram = new long[Long.SIZE];
+        for (long[] consumerHistogram : histograms) {
+            for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+                histogram[bucket] += consumerHistogram[bucket];
+            }
+        }
+        System.out.println(producers + " producers: " + ITEMS * 1000L / TimeUnit.NANOSECONDS.toMicros(elapsed)
+                + " Kitems/s, latency p50 < " + getPercentile(histogram, 0.5) + " us, p99 < "
+                + getPercentile(histogram, 0.99) + " us, p99.9 < " + getPercentile(histogram, 0.999) + " us");
+    }
+
+    // the upper bound (in microseconds) of the bucket holding the given fraction of the latencies
+    private static long getPercentile(long[] histogram, double fraction) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        long seen = 0;
+        for (int bucket = 0; bucket < Long.SIZE - 1; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= fraction * total) {
+                return Math.max(1, (1L << (bucket + 1)) / 1000);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static ExecutorService newExecutor() {
+        Method factory = getVirtualExecutorFactory();
+        if (null == factory) {
+            return Executors.newCachedThreadPool();
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor, if there is one
+    private static Method getVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package permutation;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+// Thread-safe deque for any number of producers and consumers. It relies on ConcurrentLinkedDeque,
+// which links its nodes by CAS operations only, while keeping the contract of Deque:
+// null items are rejected and removing from an empty deque throws NoSuchElementException.
+public class ConcurrentDeque<Item> implements Iterable<Item> {
+
+    // the size is not counted separately: a shared counter would add a contended update to every operation
+    private final ConcurrentLinkedDeque<Item> items = new ConcurrentLinkedDeque<Item>();
+
+    // construct an empty deque
+    public ConcurrentDeque() {
+        // Empty constructor
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    // return the number of items on the deque; it traverses the deque in O(n), and since the deque may be changed
+    // meanwhile, the count is only weakly consistent, just as the one of ConcurrentLinkedDeque
+    public int size() {
+        return items.size();
+    }
+
+    // add the item to the front
+    public void addFirst(Item item) {
+        if (null == item) {
+            throw new IllegalArgumentException();
+        }
+        items.addFirst(item);
+    }
+
+    // add the item to the back
+    public void addLast(Item item) {
+        if (null == item) {
+            throw new IllegalArgumentException();
+        }
+        items.addLast(item);
+    }
+
+    // remove and return the item from the front
+    public Item removeFirst() {
+        Item item = items.pollFirst();
+        if (null == item) {
+            throw new NoSuchElementException();
+        }
+        return item;
+    }
+
+    // remove and return the item from the back
+    public Item removeLast() {
+        Item item = items.pollLast();
+        if (null == item) {
+            throw new NoSuchElementException();
+        }
+        return item;
+    }
+
+    // return a weakly consistent iterator over items in order from front to back
+    public Iterator<Item> iterator() {
+        return new ItemIterator(items.iterator());
+    }
+
+    private class ItemIterator implements Iterator<Item> {
+
+        private final Iterator<Item> iterator;
+
+        public ItemIterator(Iterator<Item> iterator) {
+            this.iterator = iterator;
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        public Item next() {
+            return iterator.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
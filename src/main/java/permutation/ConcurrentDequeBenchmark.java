@@ -0,0 +1,108 @@
+package permutation;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// measures how the thread-safe deques scale with the number of threads: every thread of the first two
+// workloads adds to the front and removes from the back of a shared deque, while in the last one
+// a single owner keeps adding work and all the other threads steal it; the owner pushes only while the deque
+// is below a steady size and pops otherwise, so that the deque does not grow and push, pop and steal are
+// measured rather than the growth of the buffer
+public class ConcurrentDequeBenchmark {
+    private static final long DURATION_MILLIS = 1000;
+    private static final int WORK_STEALING_STEADY_SIZE = 64;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int threads : THREAD_COUNTS) {
+            final Deque<Integer> deque = new Deque<Integer>();
+            report("synchronized Deque", threads, run(threads, new Worker() {
+                public boolean work(int thread, Integer item) {
+                    synchronized (deque) {
+                        deque.addFirst(item);
+                    }
+                    synchronized (deque) {
+                        deque.removeLast();
+                    }
+                    return true;
+                }
+            }));
+
+            final ConcurrentDeque<Integer> concurrentDeque = new ConcurrentDeque<Integer>();
+            report("ConcurrentDeque", threads, run(threads, new Worker() {
+                public boolean work(int thread, Integer item) {
+                    concurrentDeque.addFirst(item);
+                    concurrentDeque.removeLast();
+                    return true;
+                }
+            }));
+
+            final WorkStealingDeque<Integer> workStealingDeque = new WorkStealingDeque<Integer>();
+            report("WorkStealingDeque", threads, run(threads, new Worker() {
+                public boolean work(int thread, Integer item) {
+                    try {
+                        if (0 == thread) {
+                            if (workStealingDeque.size() < WORK_STEALING_STEADY_SIZE) {
+                                workStealingDeque.addLast(item);
+                                workStealingDeque.addLast(item);
+                            }
+                            workStealingDeque.removeLast();
+                        } else {
+                            workStealingDeque.removeFirst();
+                        }
+                        return true;
+                    } catch (NoSuchElementException e) {
+                        return false;
+                    }
+                }
+            }));
+        }
+    }
+
+    // returns the number of successful operations per second
+    private static long run(int threads, final Worker worker) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicLong operations = new AtomicLong();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            workers[i] = new Thread(new Runnable() {
+                public void run() {
+                    Integer item = thread;
+                    long count = 0;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    while (System.nanoTime() < deadline) {
+                        for (int j = 0; j < 1000; j++) {
+                            if (worker.work(thread, item)) {
+                                count++;
+                            }
+                        }
+                    }
+                    operations.addAndGet(count);
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread workerThread : workers) {
+            workerThread.join();
+        }
+        return operations.get() * 1000 / DURATION_MILLIS;
+    }
+
+    private static void report(String name, int threads, long operationsPerSecond) {
+        System.out.println(name + ", " + threads + " threads: " + operationsPerSecond / 1000 + " Kops/s");
+    }
+
+    private interface Worker {
+        // performs one operation and returns whether it succeeded
+        boolean work(int thread, Integer item);
+    }
+}
\ No newline at end of file
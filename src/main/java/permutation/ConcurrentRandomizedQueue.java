@@ -0,0 +1,202 @@
+package permutation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Thread-safe randomized queue for many producers and consumers. Items are spread over stripes, each being
+// an array with a lock of its own, and all the randomness comes from ThreadLocalRandom, so there is neither
+// a global lock nor a shared random generator. An item is chosen by picking a random stripe and then
+// a random slot in it: since items are enqueued to random stripes as well, the stripes stay balanced
+// and the choice is close to uniform, although not exactly uniform.
+public class ConcurrentRandomizedQueue<Item> implements Iterable<Item> {
+
+    private static final int INITIAL_STRIPE_CAPACITY = 8;
+
+    // there is no shared counter of the items, which every operation would have to update:
+    // the size is summed up over the stripes instead
+    private final Stripe<Item>[] stripes;
+
+    // construct an empty randomized queue with a stripe per available processor
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // construct an empty randomized queue with the given number of stripes
+    public ConcurrentRandomizedQueue(int stripeCount) {
+        if (0 >= stripeCount) {
+            throw new IllegalArgumentException();
+        }
+        stripes = (Stripe<Item>[]) new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<Item>();
+        }
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        for (Stripe<Item> stripe : stripes) {
+            if (0 != stripe.size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // return the number of items on the randomized queue; the stripes are read one by one without locking,
+    // so that it may be outdated by the time it is returned
+    public int size() {
+        int size = 0;
+        for (Stripe<Item> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    // add the item
+    public void enqueue(Item item) {
+        if (null == item) {
+            throw new IllegalArgumentException();
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes.length);
+        // prefer a stripe nobody is holding
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe<Item> stripe = stripes[(start + i) % stripes.length];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.add(item);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        Stripe<Item> stripe = stripes[start];
+        stripe.lock.lock();
+        try {
+            stripe.add(item);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // remove and return a random item
+    public Item dequeue() {
+        return takeOrPeek(true);
+    }
+
+    // return a random item (but do not remove it)
+    public Item sample() {
+        return takeOrPeek(false);
+    }
+
+    // return an iterator over a snapshot of the items in random order
+    public Iterator<Item> iterator() {
+        Object[] snapshot = new Object[0];
+        int snapshotSize = 0;
+        for (Stripe<Item> stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (snapshotSize + stripe.size > snapshot.length) {
+                    snapshot = Arrays.copyOf(snapshot, Math.max(snapshot.length * 2, snapshotSize + stripe.size));
+                }
+                System.arraycopy(stripe.items, 0, snapshot, snapshotSize, stripe.size);
+                snapshotSize += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new ItemIterator(snapshot, snapshotSize);
+    }
+
+    // visits the stripes starting from a random one, and takes (or peeks) a random item of the first
+    // non-empty stripe; the first round skips locked stripes, the second one waits for them
+    private Item takeOrPeek(boolean take) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int start = random.nextInt(stripes.length);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe<Item> stripe = stripes[(start + i) % stripes.length];
+                if (0 == stripe.size) {
+                    continue;
+                }
+                if (0 == round) {
+                    if (!stripe.lock.tryLock()) {
+                        continue;
+                    }
+                } else {
+                    stripe.lock.lock();
+                }
+                try {
+                    if (0 != stripe.size) {
+                        int index = random.nextInt(stripe.size);
+                        return take ? stripe.remove(index) : stripe.items[index];
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    private static class Stripe<Item> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Item[] items = (Item[]) new Object[INITIAL_STRIPE_CAPACITY];
+        // read without the lock as a hint only
+        private volatile int size;
+
+        private void add(Item item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[size] = item;
+            size++;
+        }
+
+        private Item remove(int index) {
+            int last = size - 1;
+            Item item = items[index];
+            items[index] = items[last];
+            items[last] = null;
+            size = last;
+            if (items.length > INITIAL_STRIPE_CAPACITY && last <= items.length / 4) {
+                items = Arrays.copyOf(items, items.length / 2);
+            }
+            return item;
+        }
+    }
+
+    private class ItemIterator implements Iterator<Item> {
+
+        private final Object[] items;
+        private int remaining;
+
+        public ItemIterator(Object[] items, int size) {
+            this.items = items;
+            remaining = size;
+        }
+
+        public boolean hasNext() {
+            return 0 != remaining;
+        }
+
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int randomIndex = ThreadLocalRandom.current().nextInt(remaining);
+            Object item = items[randomIndex];
+            remaining--;
+            items[randomIndex] = items[remaining];
+            items[remaining] = item;
+            return (Item) item;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
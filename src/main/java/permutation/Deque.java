@@ -1,5 +1,6 @@
 package permutation;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -7,19 +8,22 @@ public class Deque<Item> implements Iterable<Item> {
 
     private static final String TEST_STRING = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 
-    private Node first;
-    private Node last;
+    // capacity is always a power of two, so that indices wrap around by masking
+    private static final int MIN_CAPACITY = 8;
 
-    private int size = 0;
+    // ring buffer: the items occupy [head, head + size) modulo capacity
+    private Item[] items;
+    private int head;
+    private int size;
 
     // construct an empty deque
     public Deque() {
-        // Empty constructor
+        items = (Item[]) new Object[MIN_CAPACITY];
     }
 
     // is the deque empty?
     public boolean isEmpty() {
-        return null == first;
+        return 0 == size;
     }
 
     // return the number of items on the deque
@@ -32,14 +36,11 @@ public class Deque<Item> implements Iterable<Item> {
         if (null == item) {
             throw new IllegalArgumentException();
         }
-        Node toAdd = new Node(item);
-        if (isEmpty()) {
-            last = toAdd;
-        } else {
-            first.setPrevious(toAdd);
-            toAdd.setNext(first);
+        if (size == items.length) {
+            resize(items.length * 2);
         }
-        first = toAdd;
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
         size++;
     }
 
@@ -48,55 +49,81 @@ public class Deque<Item> implements Iterable<Item> {
         if (null == item) {
             throw new IllegalArgumentException();
         }
-        Node toAdd = new Node(item);
-        if (isEmpty()) {
-            first = toAdd;
-        } else {
-            last.setNext(toAdd);
-            toAdd.setPrevious(last);
+        if (size == items.length) {
+            resize(items.length * 2);
         }
-        last = toAdd;
+        items[(head + size) & (items.length - 1)] = item;
         size++;
     }
 
+    // add all the items to the back in the order given; none of them is added if any is null
+    public void addAllLast(Item[] toAdd) {
+        if (null == toAdd) {
+            throw new IllegalArgumentException();
+        }
+        for (Item item : toAdd) {
+            if (null == item) {
+                throw new IllegalArgumentException();
+            }
+        }
+        reserve(size + toAdd.length);
+        int tail = (head + size) & (items.length - 1);
+        int tailPart = Math.min(toAdd.length, items.length - tail);
+        System.arraycopy(toAdd, 0, items, tail, tailPart);
+        System.arraycopy(toAdd, tailPart, items, 0, toAdd.length - tailPart);
+        size += toAdd.length;
+    }
+
+    // add all the items of the collection to the back in its iteration order; none of them is added if any is null
+    public void addAllLast(Collection<? extends Item> toAdd) {
+        if (null == toAdd) {
+            throw new IllegalArgumentException();
+        }
+        addAllLast((Item[]) toAdd.toArray());
+    }
+
+    // remove at most maxItems items from the front, add them to the collection in order and return their number
+    public int drainTo(Collection<? super Item> destination, int maxItems) {
+        if (null == destination || 0 > maxItems) {
+            throw new IllegalArgumentException();
+        }
+        int count = Math.min(maxItems, size);
+        // the item is only removed once the destination has taken it, so that the deque stays consistent
+        // if add throws
+        for (int i = 0; i < count; i++) {
+            destination.add(items[head]);
+            items[head] = null;
+            head = (head + 1) & (items.length - 1);
+            size--;
+        }
+        shrinkIfSparse();
+        return count;
+    }
+
     // remove and return the item from the front
     public Item removeFirst() {
         if (isEmpty()) {
             throw new NoSuchElementException();
-        } else {
-            Node toReturn = first;
-            Node second = first.getNext();
-            // one element only
-            if (null == second) {
-                first = null;
-                last = null;
-            } else {
-                second.setPrevious(null);
-                first = second;
-            }
-            size--;
-            return toReturn.getContent();
         }
+        Item toReturn = items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrinkIfSparse();
+        return toReturn;
     }
 
     // remove and return the item from the back
     public Item removeLast() {
         if (isEmpty()) {
             throw new NoSuchElementException();
-        } else {
-            Node toReturn = last;
-            Node second = last.getPrevious();
-            // one element only
-            if (null == second) {
-                first = null;
-                last = null;
-            } else {
-                second.setNext(null);
-                last = second;
-            }
-            size--;
-            return toReturn.getContent();
         }
+        int tail = (head + size - 1) & (items.length - 1);
+        Item toReturn = items[tail];
+        items[tail] = null;
+        size--;
+        shrinkIfSparse();
+        return toReturn;
     }
 
     // return an iterator over items in order from front to back
@@ -132,59 +159,62 @@ public class Deque<Item> implements Iterable<Item> {
         assert deque.isEmpty();
     }
 
-    private class ItemIterator implements Iterator<Item> {
-
-        private Node current;
-
-        public ItemIterator() {
-            current = first;
+    // halve the capacity once the deque is only a quarter full: the gap between the two thresholds
+    // prevents resizing back and forth when the size oscillates around a power of two
+    private void shrinkIfSparse() {
+        int capacity = items.length;
+        while (capacity > MIN_CAPACITY && size <= capacity / 4) {
+            capacity /= 2;
         }
-
-        public boolean hasNext() {
-            return null != current;
+        if (capacity != items.length) {
+            resize(capacity);
         }
+    }
 
-        public Item next() {
-            if (!hasNext()) {
-                throw new NoSuchElementException();
+    // doubles the capacity as many times as needed at once, so that a batch is copied only once
+    private void reserve(int capacity) {
+        if (0 > capacity) {
+            throw new IllegalArgumentException();
+        }
+        int newCapacity = items.length;
+        while (newCapacity < capacity) {
+            if (newCapacity > Integer.MAX_VALUE / 2) {
+                throw new IllegalArgumentException();
             }
-            Item item = current.getContent();
-            current = current.getNext();
-            return item;
+            newCapacity *= 2;
         }
-
-        public void remove() {
-            throw new UnsupportedOperationException();
+        if (newCapacity != items.length) {
+            resize(newCapacity);
         }
     }
 
-    private class Node {
-        private Node next;
-        private Node previous;
-        private final Item content;
-
-        public Node(Item content) {
-            this.content = content;
-        }
+    // copies the items to the beginning of a new array
+    private void resize(int capacity) {
+        Item[] copyArray = (Item[]) new Object[capacity];
+        int headPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copyArray, 0, headPart);
+        System.arraycopy(items, 0, copyArray, headPart, size - headPart);
+        items = copyArray;
+        head = 0;
+    }
 
-        public void setNext(Node aNext) {
-            this.next = aNext;
-        }
+    private class ItemIterator implements Iterator<Item> {
 
-        public void setPrevious(Node aPrevious) {
-            this.previous = aPrevious;
-        }
+        private int processed;
 
-        public Node getNext() {
-            return next;
+        public boolean hasNext() {
+            return size != processed;
         }
 
-        public Node getPrevious() {
-            return previous;
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + processed++) & (items.length - 1)];
         }
 
-        public Item getContent() {
-            return content;
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package permutation;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedList;
+
+// compares the ring-buffer Deque with a node-based one (java.util.LinkedList keeps a node with next,
+// previous and item references per element, just as the former Deque did) on a queueing workload:
+// throughput and the number of bytes allocated per operation
+public class DequeBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int OPERATIONS = 10000000;
+    private static final int BACKLOG = 1000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long checksum = runRingBuffer();
+            report("ring buffer", start, threadBean.getThreadAllocatedBytes(threadId) - allocated, checksum);
+
+            allocated = threadBean.getThreadAllocatedBytes(threadId);
+            start = System.nanoTime();
+            checksum = runLinkedNodes();
+            report("linked nodes", start, threadBean.getThreadAllocatedBytes(threadId) - allocated, checksum);
+        }
+    }
+
+    // keeps BACKLOG items queued, adding at both ends and removing from both ends
+    private static long runRingBuffer() {
+        Deque<Integer> deque = new Deque<Integer>();
+        Integer item = 42;
+        long checksum = 0;
+        for (int i = 0; i < BACKLOG; i++) {
+            deque.addLast(item);
+        }
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (0 == (i & 1)) {
+                deque.addLast(item);
+                checksum += deque.removeFirst();
+            } else {
+                deque.addFirst(item);
+                checksum += deque.removeLast();
+            }
+        }
+        for (Integer value : deque) {
+            checksum += value;
+        }
+        return checksum;
+    }
+
+    private static long runLinkedNodes() {
+        LinkedList<Integer> deque = new LinkedList<Integer>();
+        Integer item = 42;
+        long checksum = 0;
+        for (int i = 0; i < BACKLOG; i++) {
+            deque.addLast(item);
+        }
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (0 == (i & 1)) {
+                deque.addLast(item);
+                checksum += deque.removeFirst();
+            } else {
+                deque.addFirst(item);
+                checksum += deque.removeLast();
+            }
+        }
+        for (Integer value : deque) {
+            checksum += value;
+        }
+        return checksum;
+    }
+
+    private static void report(String name, long start, long allocatedBytes, long checksum) {
+        long elapsed = System.nanoTime() - start;
+        System.out.println(name + ": " + OPERATIONS * 2L * 1000 / elapsed + " Mops/s, "
+                + (double) allocatedBytes / (OPERATIONS * 2L) + " bytes/op (checksum " + checksum + ")");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package permutation;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Deque specialized for double values: the same ring buffer as Deque, but over a double[], so that values
+// are neither boxed nor referenced, and an iterator, which hands out doubles without allocating
+public class DoubleDeque {
+
+    // capacity is always a power of two, so that indices wrap around by masking
+    private static final int MIN_CAPACITY = 8;
+
+    // ring buffer: the values occupy [head, head + size) modulo capacity
+    private double[] items;
+    private int head;
+    private int size;
+
+    // construct an empty deque
+    public DoubleDeque() {
+        items = new double[MIN_CAPACITY];
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    // return the number of values on the deque
+    public int size() {
+        return size;
+    }
+
+    // add the value to the front
+    public void addFirst(double item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = item;
+        size++;
+    }
+
+    // add the value to the back
+    public void addLast(double item) {
+        if (size == items.length) {
+            resize(items.length * 2);
+        }
+        items[(head + size) & (items.length - 1)] = item;
+        size++;
+    }
+
+    // remove and return the value from the front
+    public double removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        double toReturn = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        shrinkIfSparse();
+        return toReturn;
+    }
+
+    // remove and return the value from the back
+    public double removeLast() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        double toReturn = items[(head + size - 1) & (items.length - 1)];
+        size--;
+        shrinkIfSparse();
+        return toReturn;
+    }
+
+    // return an iterator over values in order from front to back
+    public PrimitiveIterator.OfDouble iterator() {
+        return new ItemIterator();
+    }
+
+    // see Deque#shrinkIfSparse
+    private void shrinkIfSparse() {
+        if (items.length > MIN_CAPACITY && size <= items.length / 4) {
+            resize(items.length / 2);
+        }
+    }
+
+    // copies the values to the beginning of a new array
+    private void resize(int capacity) {
+        double[] copyArray = new double[capacity];
+        int headPart = Math.min(size, items.length - head);
+        System.arraycopy(items, head, copyArray, 0, headPart);
+        System.arraycopy(items, 0, copyArray, headPart, size - headPart);
+        items = copyArray;
+        head = 0;
+    }
+
+    private class ItemIterator implements PrimitiveIterator.OfDouble {
+
+        private int processed;
+
+        public boolean hasNext() {
+            return size != processed;
+        }
+
+        public double nextDouble() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items[(head + processed++) & (items.length - 1)];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package permutation;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import random.RandomSource;
+import random.StdRandomSource;
+
+// RandomizedQueue specialized for int values: the values are kept in an int[] without boxing,
+// and the iterator hands out ints shuffling lazily just as the one of RandomizedQueue does
+public class IntRandomizedQueue {
+
+    private static final int INITIAL_CAPACITY = 1;
+
+    private final RandomSource random;
+    private int[] array;
+    private int size;
+
+    // lets the iterators, which do not copy the values, detect that the queue has been changed
+    private int modifications;
+
+    // construct an empty randomized queue
+    public IntRandomizedQueue() {
+        this(StdRandomSource.INSTANCE);
+    }
+
+    // construct an empty randomized queue, which draws its random numbers from the given source
+    public IntRandomizedQueue(RandomSource random) {
+        if (null == random) {
+            throw new IllegalArgumentException();
+        }
+        this.random = random;
+        array = new int[INITIAL_CAPACITY];
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    // return the number of values on the randomized queue
+    public int size() {
+        return size;
+    }
+
+    // add the value
+    public void enqueue(int item) {
+        if (size == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[size++] = item;
+        modifications++;
+    }
+
+    // remove and return a random value
+    public int dequeue() {
+        if (0 == size) {
+            throw new NoSuchElementException();
+        }
+        int indexToRemove = getRandomInt(size);
+        int toReturn = array[indexToRemove];
+        array[indexToRemove] = array[size - 1];
+        size--;
+        modifications++;
+        if (array.length > 1 && size <= array.length / 4) {
+            array = Arrays.copyOf(array, array.length / 2);
+        }
+        return toReturn;
+    }
+
+    // return a random value (but do not remove it)
+    public int sample() {
+        if (0 == size) {
+            throw new NoSuchElementException();
+        }
+        return array[getRandomInt(size)];
+    }
+
+    // return an iterator over values in random order; the queue must not be changed while it is iterated
+    public PrimitiveIterator.OfInt iterator() {
+        return new ItemIterator();
+    }
+
+    // see RandomizedQueue.ItemIterator
+    private class ItemIterator implements PrimitiveIterator.OfInt {
+
+        private final int expectedModifications = modifications;
+        private final SwapMap swaps = new SwapMap();
+        private int processed;
+
+        public boolean hasNext() {
+            return size != processed;
+        }
+
+        public int nextInt() {
+            if (expectedModifications != modifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int randomIndex = processed + getRandomInt(size - processed);
+            int itemIndex = swaps.get(randomIndex);
+            if (randomIndex != processed) {
+                swaps.put(randomIndex, swaps.get(processed));
+            }
+            processed++;
+            return array[itemIndex];
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private int getRandomInt(int upperBound) {
+        return random.nextInt(upperBound);
+    }
+}
\ No newline at end of file
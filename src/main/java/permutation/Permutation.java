@@ -1,31 +1,85 @@
 package permutation;
 
-import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
-import edu.princeton.cs.algs4.StdRandom;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import random.RandomSource;
+import random.StdRandomSource;
 
+// Prints k tokens chosen uniformly at random out of the n tokens of the standard input (or of the file,
+// if its path is passed as the second argument), reading the input only once and keeping k tokens at most.
+// The reservoir is filled by Algorithm L: instead of drawing a random number for every token,
+// it computes how many tokens to skip before the next replacement, so that O(k log(n / k)) draws are made.
 public class Permutation {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         int k = Integer.parseInt(args[0]);
+        if (0 > k) {
+            throw new IllegalArgumentException();
+        }
+        if (0 == k) {
+            return;
+        }
+
+        FileChannel channel = args.length > 1
+                ? FileChannel.open(Paths.get(args[1]), StandardOpenOption.READ)
+                : new FileInputStream(FileDescriptor.in).getChannel();
+        String[] sample;
+        try {
+            sample = sample(channel, k, StdRandomSource.INSTANCE);
+        } finally {
+            channel.close();
+        }
+        for (String token : sample) {
+            StdOut.println(token);
+        }
+    }
+
+    // returns min(k, n) tokens of the channel chosen uniformly at random and in random order;
+    // the channel is read to the end (or as far as needed) but not closed
+    public static String[] sample(ReadableByteChannel channel, int k, RandomSource random) throws IOException {
+        if (null == channel || 0 >= k || null == random) {
+            throw new IllegalArgumentException();
+        }
+        String[] reservoir = new String[k];
         int count = 0;
+        TokenReader reader = new TokenReader(channel);
+
+        // the first k tokens are taken as they are
+        String input = null;
+        while (count < k && null != (input = reader.next())) {
+            reservoir[count++] = input;
+        }
 
-        RandomizedQueue<String> randomizedQueue = new RandomizedQueue<String>();
-        String input;
-        while (!StdIn.isEmpty()) {
-            count++;
-            input = StdIn.readString();
-            if (count <= k) {
-                randomizedQueue.enqueue(input);
-            } else {
-                int randomIndex = StdRandom.uniform(count);
-                if (randomIndex < k) {
-                    randomizedQueue.dequeue();
-                    randomizedQueue.enqueue(input);
+        if (count == k) {
+            double weight = Math.exp(Math.log(getRandomDouble(random)) / k);
+            while (true) {
+                long toSkip = (long) Math.floor(Math.log(getRandomDouble(random)) / Math.log(1 - weight));
+                if (reader.skip(toSkip) < toSkip || null == (input = reader.next())) {
+                    break;
                 }
+                reservoir[random.nextInt(k)] = input;
+                weight *= Math.exp(Math.log(getRandomDouble(random)) / k);
             }
         }
-        for (String str : randomizedQueue) {
-            StdOut.println(str);
+
+        // the reservoir is not in random order (its first slots are filled sequentially), hence shuffle it
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String str = reservoir[i];
+            reservoir[i] = reservoir[j];
+            reservoir[j] = str;
         }
+        return count == k ? reservoir : Arrays.copyOf(reservoir, count);
+    }
+
+    // uniform in (0, 1], so that its logarithm is finite
+    private static double getRandomDouble(RandomSource random) {
+        return 1 - random.nextDouble();
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package permutation;
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+
+// compares the int-specialized deque and randomized queue with the generic ones holding Integers:
+// retained heap per element once the collection is filled, and the times to fill, iterate and drain it.
+// Every phase is timed on its own, so that the full collections run by the memory measurement
+// stay out of the timings
+public class PrimitiveQueuesBenchmark {
+    private static final int ROUNDS = 3;
+    private static final int COUNT = 5000000;
+
+    public static void main(String[] args) {
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = usedMemory();
+            long start = System.nanoTime();
+            Deque<Integer> deque = new Deque<Integer>();
+            for (int i = 0; i < COUNT; i++) {
+                deque.addLast(i);
+            }
+            report("Deque<Integer>", System.nanoTime() - start, before, deque.size());
+            start = System.nanoTime();
+            long checksum = 0;
+            for (Integer value : deque) {
+                checksum += value;
+            }
+            report("Deque<Integer>", "iterated", start, checksum);
+            start = System.nanoTime();
+            while (!deque.isEmpty()) {
+                checksum -= deque.removeFirst();
+            }
+            report("Deque<Integer>", "drained", start, checksum);
+
+            before = usedMemory();
+            start = System.nanoTime();
+            IntDeque intDeque = new IntDeque();
+            for (int i = 0; i < COUNT; i++) {
+                intDeque.addLast(i);
+            }
+            report("IntDeque", System.nanoTime() - start, before, intDeque.size());
+            start = System.nanoTime();
+            checksum = 0;
+            PrimitiveIterator.OfInt intIterator = intDeque.iterator();
+            while (intIterator.hasNext()) {
+                checksum += intIterator.nextInt();
+            }
+            report("IntDeque", "iterated", start, checksum);
+            start = System.nanoTime();
+            while (!intDeque.isEmpty()) {
+                checksum -= intDeque.removeFirst();
+            }
+            report("IntDeque", "drained", start, checksum);
+
+            before = usedMemory();
+            start = System.nanoTime();
+            RandomizedQueue<Integer> queue = new RandomizedQueue<Integer>();
+            for (int i = 0; i < COUNT; i++) {
+                queue.enqueue(i);
+            }
+            report("RandomizedQueue<Integer>", System.nanoTime() - start, before, queue.size());
+            start = System.nanoTime();
+            checksum = 0;
+            Iterator<Integer> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                checksum += iterator.next();
+            }
+            report("RandomizedQueue<Integer>", "iterated", start, checksum);
+            start = System.nanoTime();
+            while (!queue.isEmpty()) {
+                checksum -= queue.dequeue();
+            }
+            report("RandomizedQueue<Integer>", "drained", start, checksum);
+
+            before = usedMemory();
+            start = System.nanoTime();
+            IntRandomizedQueue intQueue = new IntRandomizedQueue();
+            for (int i = 0; i < COUNT; i++) {
+                intQueue.enqueue(i);
+            }
+            report("IntRandomizedQueue", System.nanoTime() - start, before, intQueue.size());
+            start = System.nanoTime();
+            checksum = 0;
+            intIterator = intQueue.iterator();
+            while (intIterator.hasNext()) {
+                checksum += intIterator.nextInt();
+            }
+            report("IntRandomizedQueue", "iterated", start, checksum);
+            start = System.nanoTime();
+            while (!intQueue.isEmpty()) {
+                checksum -= intQueue.dequeue();
+            }
+            report("IntRandomizedQueue", "drained", start, checksum);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // the fill time is taken by the caller before the memory is measured
+    private static void report(String name, long fillNanos, long memoryBefore, int size) {
+        System.out.println(name + ": filled in " + fillNanos / 1000000 + " ms, "
+                + (usedMemory() - memoryBefore) / size + " bytes per element");
+    }
+
+    private static void report(String name, String phase, long start, long checksum) {
+        System.out.println(name + ": " + phase + " in " + (System.nanoTime() - start) / 1000000 + " ms (checksum "
+                + checksum + ")");
+    }
+}
\ No newline at end of file
@@ -1,19 +1,40 @@
 package permutation;
 
-import edu.princeton.cs.algs4.StdRandom;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import random.RandomSource;
+import random.StdRandomSource;
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
 
     private static final String TEST_STRING = "0123456789";
     private static final int INITIAL_CAPACITY = 1;
 
+    private final RandomSource random;
     private Item[] array;
     private int size;
 
+    // lets the iterators, which do not copy the items, detect that the queue has been changed
+    private int modifications;
+
+    // the swaps done by the latest sample, so that they can be undone; kept to avoid allocating it every time
+    private int[] sampleSwaps = new int[0];
+
     // construct an empty randomized queue
     public RandomizedQueue() {
+        this(StdRandomSource.INSTANCE);
+    }
+
+    // construct an empty randomized queue, which draws its random numbers from the given source
+    public RandomizedQueue(RandomSource random) {
+        if (null == random) {
+            throw new IllegalArgumentException();
+        }
+        this.random = random;
         array = (Item[]) new Object[INITIAL_CAPACITY];
     }
 
@@ -36,6 +57,84 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             increaseSize();
         }
         array[size++] = item;
+        modifications++;
+    }
+
+    // add all the items; none of them is added if any is null
+    public void enqueueAll(Item[] items) {
+        if (null == items) {
+            throw new IllegalArgumentException();
+        }
+        for (Item item : items) {
+            if (null == item) {
+                throw new IllegalArgumentException();
+            }
+        }
+        reserve(size + items.length);
+        System.arraycopy(items, 0, array, size, items.length);
+        size += items.length;
+        modifications++;
+    }
+
+    // add all the items of the collection; none of them is added if any is null
+    public void enqueueAll(Collection<? extends Item> items) {
+        if (null == items) {
+            throw new IllegalArgumentException();
+        }
+        enqueueAll((Item[]) items.toArray());
+    }
+
+    // remove at most maxItems random items, add them to the collection and return their number
+    public int drainTo(Collection<? super Item> destination, int maxItems) {
+        if (null == destination || 0 > maxItems) {
+            throw new IllegalArgumentException();
+        }
+        int count = Math.min(maxItems, size);
+        for (int i = 0; i < count; i++) {
+            int last = size - 1;
+            int indexToRemove = getRandomInt(size);
+            destination.add(array[indexToRemove]);
+            array[indexToRemove] = array[last];
+            array[last] = null;
+            size = last;
+        }
+        if (0 != count) {
+            modifications++;
+            decreaseSize();
+        }
+        return count;
+    }
+
+    // return k distinct random items (but do not remove them)
+    public List<Item> sample(int k) {
+        if (0 > k || size < k) {
+            throw new IllegalArgumentException();
+        }
+        Item[] items = (Item[]) new Object[k];
+        sample(items);
+        return Arrays.asList(items);
+    }
+
+    // fill the array with distinct random items (but do not remove them); the items are chosen by a partial
+    // Fisher-Yates shuffle of the queue itself, whose swaps are undone in reverse order afterwards, so that
+    // the queue is left as it was (and the iterators stay valid) without allocating anything
+    public void sample(Item[] destination) {
+        if (null == destination || size < destination.length) {
+            throw new IllegalArgumentException();
+        }
+        int k = destination.length;
+        if (sampleSwaps.length < k) {
+            sampleSwaps = new int[Math.max(k, sampleSwaps.length * 2)];
+        }
+        for (int i = 0; i < k; i++) {
+            int randomIndex = i + getRandomInt(size - i);
+            sampleSwaps[i] = randomIndex;
+            swap(i, randomIndex);
+            destination[i] = array[i];
+        }
+        for (int i = k - 1; i >= 0; i--) {
+            swap(i, sampleSwaps[i]);
+        }
     }
 
     // remove and return a random item
@@ -48,9 +147,8 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         array[indexToRemove] = array[size - 1];
         array[size - 1] = null;
         size--; // it could have been done with decrement, but this way the code seems more readable
-        if (size <= array.length / 4) {
-            decreaseSize();
-        }
+        modifications++;
+        decreaseSize();
         return toReturn;
     }
 
@@ -63,7 +161,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         return array[toRemoveIndex];
     }
 
-    // return an independent iterator over items in random order
+    // return an iterator over items in random order; the queue must not be changed while it is iterated
     public Iterator<Item> iterator() {
         return new ItemIterator();
     }
@@ -91,52 +189,70 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         assert randomizedQueue.isEmpty();
     }
 
+    private void swap(int i, int j) {
+        Item item = array[i];
+        array[i] = array[j];
+        array[j] = item;
+    }
+
     private void increaseSize() {
-        Item[] copyArray = (Item[]) new Object[array.length * 2];
-        for (int i = 0; i < array.length; i++) {
-            copyArray[i] = array[i];
+        array = Arrays.copyOf(array, array.length * 2);
+    }
+
+    // doubles the capacity as many times as needed at once, so that a batch is copied only once
+    private void reserve(int capacity) {
+        if (0 > capacity) {
+            throw new IllegalArgumentException();
+        }
+        int newCapacity = array.length;
+        while (newCapacity < capacity) {
+            if (newCapacity > Integer.MAX_VALUE / 2) {
+                throw new IllegalArgumentException();
+            }
+            newCapacity *= 2;
+        }
+        if (newCapacity != array.length) {
+            array = Arrays.copyOf(array, newCapacity);
         }
-        array = copyArray;
     }
 
+    // halves the capacity as many times as needed to keep the queue at least a quarter full
     private void decreaseSize() {
-        if (array.length > 1) {
-            Item[] copyArray = (Item[]) new Object[array.length / 2];
-            for (int i = 0; i < array.length / 2; i++) {
-                copyArray[i] = array[i];
-            }
-            array = copyArray;
+        int newCapacity = array.length;
+        while (newCapacity > 1 && size <= newCapacity / 4) {
+            newCapacity /= 2;
+        }
+        if (newCapacity != array.length) {
+            array = Arrays.copyOf(array, newCapacity);
         }
     }
 
+    // Fisher-Yates shuffle of the virtual array of indices [0, size), which is done lazily: only the positions,
+    // whose content differs from the index itself, are stored, so that k items cost O(k) time and memory
     private class ItemIterator implements Iterator<Item> {
 
+        private final int expectedModifications = modifications;
+        private final SwapMap swaps = new SwapMap();
         private int processed;
-        private Item[] items;
-
-        public ItemIterator() {
-            items = (Item[]) new Object[array.length];
-            for (int i = 0; i < items.length; i++) {
-                items[i] = array[i];
-            }
-            processed = 0;
-        }
 
         public boolean hasNext() {
             return size != processed;
         }
 
         public Item next() {
+            if (expectedModifications != modifications) {
+                throw new ConcurrentModificationException();
+            }
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            int randomIndex = getRandomInt(size - processed);
-            Item item = items[randomIndex];
-
-            items[randomIndex] = items[size - 1 - processed];
-            items[size - 1 - processed] = item;
+            int randomIndex = processed + getRandomInt(size - processed);
+            int itemIndex = swaps.get(randomIndex);
+            if (randomIndex != processed) {
+                swaps.put(randomIndex, swaps.get(processed));
+            }
             processed++;
-            return item;
+            return array[itemIndex];
         }
 
         public void remove() {
@@ -144,7 +260,7 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
         }
     }
 
-    private static int getRandomInt(int upperBound) {
-        return StdRandom.uniform(upperBound);
+    private int getRandomInt(int upperBound) {
+        return random.nextInt(upperBound);
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package permutation;
+
+// int-to-int open addressing map, in which a missing key is mapped to itself;
+// the iterators of the randomized queues keep the swaps of their lazy shuffles there
+final class SwapMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // keys are stored shifted by one, so that 0 marks an empty slot
+    private int[] keys = new int[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; 0 != keys[slot]; slot = (slot + 1) & mask) {
+            if (key + 1 == keys[slot]) {
+                return values[slot];
+            }
+        }
+        return key;
+    }
+
+    void put(int key, int value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (0 != keys[slot] && key + 1 != keys[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        if (0 == keys[slot]) {
+            keys[slot] = key + 1;
+            size++;
+        }
+        values[slot] = value;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (0 != oldKeys[i]) {
+                put(oldKeys[i] - 1, oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package permutation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Reads whitespace-separated UTF-8 tokens from a channel through a large buffer. Unlike a Scanner,
+// it does not use regular expressions, and tokens can be skipped without being decoded into strings.
+final class TokenReader {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_TOKEN_CAPACITY = 64;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    // collects the bytes of a token, which spans several buffer fills
+    private byte[] token = new byte[INITIAL_TOKEN_CAPACITY];
+
+    TokenReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    // returns the next token or null if the input is over
+    String next() throws IOException {
+        if (!skipWhitespace()) {
+            return null;
+        }
+        int tokenLength = 0;
+        while (true) {
+            int start = position;
+            while (position < limit && !isWhitespace(bytes[position])) {
+                position++;
+            }
+            if (position < limit && 0 == tokenLength) {
+                // the whole token is in the buffer: no need to copy it
+                return new String(bytes, start, position - start, StandardCharsets.UTF_8);
+            }
+            int chunkLength = position - start;
+            if (tokenLength + chunkLength > token.length) {
+                token = Arrays.copyOf(token, Math.max(token.length * 2, tokenLength + chunkLength));
+            }
+            System.arraycopy(bytes, start, token, tokenLength, chunkLength);
+            tokenLength += chunkLength;
+            if (position < limit || !fill()) {
+                return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    // skips the given number of tokens and returns how many of them there actually were
+    long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && skipWhitespace()) {
+            while (true) {
+                while (position < limit && !isWhitespace(bytes[position])) {
+                    position++;
+                }
+                if (position < limit || !fill()) {
+                    break;
+                }
+            }
+            skipped++;
+        }
+        return skipped;
+    }
+
+    // moves to the beginning of the next token and returns whether there is one
+    private boolean skipWhitespace() throws IOException {
+        while (true) {
+            while (position < limit && isWhitespace(bytes[position])) {
+                position++;
+            }
+            if (position < limit) {
+                return true;
+            }
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    // replaces the contents of the buffer with the next bytes of the channel; returns false if there are none
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (0 == read);
+        if (-1 == read) {
+            endOfInput = true;
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = buffer.position();
+        return true;
+    }
+
+    // the same ASCII whitespace as Character#isWhitespace
+    private static boolean isWhitespace(byte b) {
+        return ' ' == b || ('\t' <= b && '\r' >= b) || (0x1C <= b && 0x1F >= b);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package permutation;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import random.RandomSource;
+import random.StdRandomSource;
+
+// Randomized queue, which chooses items in proportion to their weights. The weights are summed up by
+// a Fenwick tree, so that both enqueue and dequeue take O(log n). For a set of items, which no longer
+// changes, aliasSampler() gives a sampler, which takes O(1) per sample.
+public class WeightedRandomizedQueue<Item> implements Iterable<Item> {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private final RandomSource random;
+    private Item[] array;
+    private double[] weights;
+    // 1-based Fenwick tree over weights: tree[i] is the sum of weights (i - lowestOneBit(i), i]
+    private double[] tree;
+    private int size;
+
+    // construct an empty weighted randomized queue
+    public WeightedRandomizedQueue() {
+        this(StdRandomSource.INSTANCE);
+    }
+
+    // construct an empty weighted randomized queue, which draws its random numbers from the given source
+    public WeightedRandomizedQueue(RandomSource random) {
+        if (null == random) {
+            throw new IllegalArgumentException();
+        }
+        this.random = random;
+        array = (Item[]) new Object[INITIAL_CAPACITY];
+        weights = new double[INITIAL_CAPACITY];
+        tree = new double[INITIAL_CAPACITY + 1];
+    }
+
+    // is the randomized queue empty?
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    // return the number of items on the randomized queue
+    public int size() {
+        return size;
+    }
+
+    // add the item with the given (positive) weight
+    public void enqueue(Item item, double weight) {
+        if (null == item || !(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException();
+        }
+        if (size == array.length) {
+            resize(array.length * 2);
+        }
+        array[size] = item;
+        setWeight(size, weight);
+        size++;
+    }
+
+    // remove and return an item chosen with probability proportional to its weight
+    public Item dequeue() {
+        if (0 == size) {
+            throw new NoSuchElementException();
+        }
+        int indexToRemove = getRandomIndex();
+        Item toReturn = array[indexToRemove];
+        int last = size - 1;
+        array[indexToRemove] = array[last];
+        array[last] = null;
+        setWeight(indexToRemove, weights[last]);
+        setWeight(last, 0);
+        size--;
+        if (array.length > INITIAL_CAPACITY && size <= array.length / 4) {
+            resize(array.length / 2);
+        }
+        return toReturn;
+    }
+
+    // return an item chosen with probability proportional to its weight (but do not remove it)
+    public Item sample() {
+        if (0 == size) {
+            throw new NoSuchElementException();
+        }
+        return array[getRandomIndex()];
+    }
+
+    // return an independent iterator over items in weighted random order (sampling without replacement)
+    public Iterator<Item> iterator() {
+        return new ItemIterator();
+    }
+
+    // return a sampler of the current items, which takes O(1) per sample and uses the same random source
+    public AliasSampler<Item> aliasSampler() {
+        return new AliasSampler<Item>(Arrays.copyOf(array, size), Arrays.copyOf(weights, size), random);
+    }
+
+    // finds the item, at which the prefix sums of the weights exceed a uniform point of [0, total weight)
+    private int getRandomIndex() {
+        double target = random.nextDouble() * prefixSum(size);
+        int index = 0;
+        for (int step = Integer.highestOneBit(array.length); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= array.length && tree[next] <= target) {
+                target -= tree[next];
+                index = next;
+            }
+        }
+        // rounding errors may push the search past the last item
+        return Math.min(index, size - 1);
+    }
+
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void setWeight(int index, double weight) {
+        double delta = weight - weights[index];
+        weights[index] = weight;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // a resize also rebuilds the tree in O(n), which discards the rounding errors accumulated by the updates
+    private void resize(int capacity) {
+        array = Arrays.copyOf(array, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private class ItemIterator implements Iterator<Item> {
+
+        private final WeightedRandomizedQueue<Item> remaining = new WeightedRandomizedQueue<Item>(random);
+
+        public ItemIterator() {
+            remaining.array = array.clone();
+            remaining.weights = weights.clone();
+            remaining.tree = tree.clone();
+            remaining.size = size;
+        }
+
+        public boolean hasNext() {
+            return !remaining.isEmpty();
+        }
+
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return remaining.dequeue();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
\ No newline at end of file
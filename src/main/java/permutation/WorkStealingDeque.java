@@ -0,0 +1,175 @@
+package permutation;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Chase-Lev work-stealing deque. The back belongs to a single owner thread, which adds and removes items
+// there without locking; any other thread may take items from the front, competing by a CAS on the top index.
+// Null items are rejected and removing from an empty deque throws NoSuchElementException.
+// Only the owner writes the slots: a thief cannot clear the slot it has taken the item from, since by then
+// the owner may have reused the slot (possibly for the same item), so that a stolen item stays referenced
+// until the owner overwrites its slot.
+public class WorkStealingDeque<Item> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // the workload of main: the owner adds items from a small pool, so that the same references
+    // get added again while they are still in the deque, and removes every third of them itself
+    private static final int TEST_ITEMS = 3000000;
+    private static final int TEST_THIEVES = 3;
+    private static final int TEST_POOL_SIZE = 64;
+
+    // the items occupy [top, bottom) of the ring buffer, whose capacity is a power of two
+    private final AtomicLong top = new AtomicLong();
+    private volatile long bottom;
+    private volatile AtomicReferenceArray<Item> items = new AtomicReferenceArray<Item>(INITIAL_CAPACITY);
+
+    // construct an empty deque
+    public WorkStealingDeque() {
+        // Empty constructor
+    }
+
+    // is the deque empty?
+    public boolean isEmpty() {
+        return bottom <= top.get();
+    }
+
+    // return the number of items on the deque; it may be outdated by the time it is returned
+    public int size() {
+        return (int) Math.max(0, bottom - top.get());
+    }
+
+    // add the item to the back; must only be called by the owner
+    public void addLast(Item item) {
+        if (null == item) {
+            throw new IllegalArgumentException();
+        }
+        long currentBottom = bottom;
+        long currentTop = top.get();
+        AtomicReferenceArray<Item> array = items;
+        if (currentBottom - currentTop >= array.length()) {
+            array = grow(array, currentTop, currentBottom);
+            items = array;
+        }
+        array.set((int) currentBottom & (array.length() - 1), item);
+        bottom = currentBottom + 1;
+    }
+
+    // remove and return the item from the back; must only be called by the owner
+    public Item removeLast() {
+        long newBottom = bottom - 1;
+        AtomicReferenceArray<Item> array = items;
+        // publish the claim first, so that thieves, which come later, see it
+        bottom = newBottom;
+        long currentTop = top.get();
+        if (currentTop > newBottom) {
+            bottom = newBottom + 1;
+            throw new NoSuchElementException();
+        }
+        int index = (int) newBottom & (array.length() - 1);
+        Item item = array.get(index);
+        if (currentTop == newBottom) {
+            // the last item: compete with thieves for it
+            boolean won = top.compareAndSet(currentTop, currentTop + 1);
+            bottom = newBottom + 1;
+            if (!won) {
+                throw new NoSuchElementException();
+            }
+            array.set(index, null);
+            return item;
+        }
+        array.set(index, null);
+        return item;
+    }
+
+    // remove and return the item from the front; may be called by any thread
+    public Item removeFirst() {
+        while (true) {
+            long currentTop = top.get();
+            long currentBottom = bottom;
+            if (currentTop >= currentBottom) {
+                throw new NoSuchElementException();
+            }
+            AtomicReferenceArray<Item> array = items;
+            int index = (int) currentTop & (array.length() - 1);
+            Item item = array.get(index);
+            if (top.compareAndSet(currentTop, currentTop + 1)) {
+                return item;
+            }
+            // lost the race to another thief or to the owner: try again
+        }
+    }
+
+    // stress test: the owner and the thieves race for the items, none of which may be lost, duplicated or null
+    public static void main(String[] args) throws InterruptedException {
+        final WorkStealingDeque<Integer> deque = new WorkStealingDeque<Integer>();
+        final AtomicBoolean ownerDone = new AtomicBoolean();
+        final AtomicLong removedCount = new AtomicLong();
+        final AtomicLong removedSum = new AtomicLong();
+        Integer[] pool = new Integer[TEST_POOL_SIZE];
+        for (int i = 0; i < TEST_POOL_SIZE; i++) {
+            pool[i] = i + 1;
+        }
+
+        Thread[] thieves = new Thread[TEST_THIEVES];
+        for (int i = 0; i < TEST_THIEVES; i++) {
+            thieves[i] = new Thread(new Runnable() {
+                public void run() {
+                    long count = 0;
+                    long sum = 0;
+                    while (!ownerDone.get() || !deque.isEmpty()) {
+                        try {
+                            sum += deque.removeFirst();
+                            count++;
+                        } catch (NoSuchElementException e) {
+                            Thread.yield();
+                        }
+                    }
+                    removedCount.addAndGet(count);
+                    removedSum.addAndGet(sum);
+                }
+            });
+            thieves[i].start();
+        }
+
+        long addedSum = 0;
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < TEST_ITEMS; i++) {
+            Integer item = pool[i % TEST_POOL_SIZE];
+            deque.addLast(item);
+            addedSum += item;
+            if (0 == i % 3) {
+                try {
+                    sum += deque.removeLast();
+                    count++;
+                } catch (NoSuchElementException e) {
+                    // the thieves have taken everything
+                }
+            }
+        }
+        ownerDone.set(true);
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+        removedCount.addAndGet(count);
+        removedSum.addAndGet(sum);
+
+        // a lost item would be seen as a null (failing on unboxing) or as a mismatch of the totals
+        if (TEST_ITEMS != removedCount.get() || addedSum != removedSum.get()) {
+            throw new IllegalStateException("added " + TEST_ITEMS + " items summing to " + addedSum + ", removed "
+                    + removedCount.get() + " summing to " + removedSum.get());
+        }
+        System.out.println(TEST_ITEMS + " items added and removed by the owner and " + TEST_THIEVES + " thieves");
+    }
+
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> array, long from, long to) {
+        AtomicReferenceArray<Item> copyArray = new AtomicReferenceArray<Item>(array.length() * 2);
+        for (long i = from; i < to; i++) {
+            copyArray.set((int) i & (copyArray.length() - 1), array.get((int) i & (array.length() - 1)));
+        }
+        return copyArray;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package random;
+
+// A source of uniformly distributed random numbers, which can be split into independent sources,
+// so that parallel computations get a source each instead of contending for a shared one.
+// Implementations are not thread-safe unless stated otherwise.
+public interface RandomSource {
+
+    // returns an int uniform in [0, bound)
+    int nextInt(int bound);
+
+    // returns a double uniform in [0, 1)
+    double nextDouble();
+
+    // returns a new source, whose numbers are independent of the ones of this source
+    RandomSource split();
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package random;
+
+import java.util.SplittableRandom;
+
+// RandomSource backed by java.util.SplittableRandom
+public final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    public SplittableRandomSource(SplittableRandom random) {
+        if (null == random) {
+            throw new IllegalArgumentException();
+        }
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public SplittableRandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package random;
+
+import edu.princeton.cs.algs4.StdRandom;
+
+// RandomSource backed by the global StdRandom, so that StdRandom.setSeed still applies; it is thread-safe,
+// but it is shared by everyone, hence split returns the same source
+public final class StdRandomSource implements RandomSource {
+
+    public static final StdRandomSource INSTANCE = new StdRandomSource();
+
+    private StdRandomSource() {
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return StdRandom.uniform(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return StdRandom.uniform();
+    }
+
+    @Override
+    public StdRandomSource split() {
+        return this;
+    }
+}
\ No newline at end of file
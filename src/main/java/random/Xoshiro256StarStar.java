@@ -0,0 +1,145 @@
+package random;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// xoshiro256** by Blackman and Vigna: 256 bits of state, a period of 2^256 - 1 and a few shifts,
+// rotations and xors per number. A split generator gets its state from four numbers of this one passed
+// through SplitMix64, as SplittableRandom does: jumping would not do, since a split of the split one would
+// jump onto the stream of this one. The new state is a random point of the period, so that the streams of
+// any tree of splits overlap with negligible probability.
+public final class Xoshiro256StarStar implements RandomSource {
+
+    // the shape of the tree of splits checked by main
+    private static final int CHECKED_NUMBERS = 1000;
+    private static final int CHECKED_SPLIT_DEPTH = 6;
+    private static final int CHECKED_LEAF_SPLITS = 8;
+
+    private static final long[] JUMP = {
+        0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL, 0x39abdc4529b1661cL
+    };
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    // the state is expanded from the seed by SplitMix64, as the authors recommend
+    public Xoshiro256StarStar(long seed) {
+        long x = seed;
+        s0 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s1 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s2 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s3 = splitMix64(x + 0x9e3779b97f4a7c15L);
+    }
+
+    private Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    // Lemire's multiply-shift: the high 32 bits of a 32-bit number times the bound, rejecting
+    // the few low parts, which would make the result biased
+    @Override
+    public int nextInt(int bound) {
+        if (0 >= bound) {
+            throw new IllegalArgumentException();
+        }
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xffffffffL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xffffffffL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public Xoshiro256StarStar split() {
+        Xoshiro256StarStar split = new Xoshiro256StarStar(splitMix64(nextLong()), splitMix64(nextLong()),
+                splitMix64(nextLong()), splitMix64(nextLong()));
+        // the only state, which xoshiro cannot leave
+        if (0 == (split.s0 | split.s1 | split.s2 | split.s3)) {
+            split.s0 = 1;
+        }
+        return split;
+    }
+
+    // advances the state by 2^128 numbers, which gives up to 2^128 non-overlapping streams of one generator
+    public void jump() {
+        long t0 = 0;
+        long t1 = 0;
+        long t2 = 0;
+        long t3 = 0;
+        for (long word : JUMP) {
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if (0 != (word & 1L << bit)) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+    }
+
+    // checks that the generators of a tree of recursive splits (the way PercolationStats splits them)
+    // produce pairwise distinct numbers: an overlap of two streams would show up as repeated numbers
+    public static void main(String[] args) {
+        Set<Long> numbers = new HashSet<Long>();
+        int generators = checkSplits(new Xoshiro256StarStar(42), CHECKED_SPLIT_DEPTH, numbers);
+        if (numbers.size() != generators * CHECKED_NUMBERS) {
+            throw new IllegalStateException("split streams overlap");
+        }
+        System.out.println(generators + " split generators, " + numbers.size() + " distinct numbers");
+    }
+
+    // splits the generator as a binary tree of the given depth, whose left children get the split generators;
+    // every leaf splits off a generator per trial and collects its first numbers into the set.
+    // Returns the number of the generators, whose numbers have been collected
+    private static int checkSplits(Xoshiro256StarStar generator, int depth, Set<Long> numbers) {
+        if (depth > 0) {
+            Xoshiro256StarStar left = generator.split();
+            return checkSplits(left, depth - 1, numbers) + checkSplits(generator, depth - 1, numbers);
+        }
+        for (int trial = 0; trial < CHECKED_LEAF_SPLITS; trial++) {
+            Xoshiro256StarStar split = generator.split();
+            for (int i = 0; i < CHECKED_NUMBERS; i++) {
+                numbers.add(split.nextLong());
+            }
+        }
+        return CHECKED_LEAF_SPLITS;
+    }
+
+    private static long splitMix64(long x) {
+        long z = x;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
\ No newline at end of file